@@ -0,0 +1,47 @@
+import hoggle.*;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+
+public class OutputsTest {
+  public static void main(String[] args) throws IOException {
+    File maze = new File("test mazes/maze3.txt");
+
+    // Outputs chosen by an earlier call are all turned off by a later one
+    Hoggle hoggle = createSolver(maze, "outputs-test");
+    ByteArrayOutputStream printed = new ByteArrayOutputStream();
+    hoggle.setOutput(new PrintStream(printed));
+    hoggle.setOutputs(Output.TELEMETRY, Output.PNG_SOLUTION, Output.ASCII_ANIMATION);
+    check(hoggle.getStats() != null, "telemetry collects stats");
+    hoggle.setOutputs();
+    check(hoggle.getStats() == null, "stats dropped with telemetry");
+
+    Path solution = hoggle.solve();
+    check(solution != null && solution.size() == 24, "solved maze3");
+    check(printed.size() == 0, "nothing printed");
+    check(!new File("outputs-test-solution").exists(), "no solution directory");
+
+    // Stats asked for directly outlast telemetry
+    hoggle = createSolver(maze, "outputs-test");
+    hoggle.setCollectStats(true);
+    hoggle.setOutputs(Output.TELEMETRY);
+    hoggle.setOutputs();
+    check(hoggle.getStats() != null, "requested stats kept");
+    hoggle.solve();
+    check(hoggle.getStats().getPathLength() == 24, "stats gathered");
+
+    System.out.println("All output checks passed.");
+  }
+
+  private static Hoggle createSolver(File f, String name) throws IOException {
+    Hoggle hoggle = MazeFile.readText(f).createSolver();
+    hoggle.setName(name);
+    return hoggle;
+  }
+
+  private static void check(boolean condition, String what) {
+    if (!condition)
+      throw new AssertionError("Failed: " + what);
+  }
+}
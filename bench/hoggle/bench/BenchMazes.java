@@ -0,0 +1,26 @@
+package hoggle.bench;
+
+import hoggle.gen.BacktrackerGenerator;
+import hoggle.gen.CellMaze;
+import hoggle.gen.MazeGenerator;
+
+// Seeded maze fixtures for the benchmarks. Sizes are in characters, size by size with cells on odd coordinates, and mazes
+// run from the top-left cell to the bottom-right one
+final class BenchMazes {
+  enum Style { PERFECT, BRAIDED, ROOMS }
+
+  private BenchMazes() {}
+
+  static CellMaze generate(Style style, int size, long seed) {
+    assert (size >= 3 && size % 2 == 1);
+
+    MazeGenerator generator = new BacktrackerGenerator(size/2, size/2, seed);
+
+    if (style == Style.BRAIDED)
+      generator.setBraid(0.5);
+    else if (style == Style.ROOMS)
+      generator.setRoomDensity(0.3);
+
+    return generator.generate();
+  }
+}
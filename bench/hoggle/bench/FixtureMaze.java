@@ -0,0 +1,29 @@
+package hoggle.bench;
+
+import hoggle.BitMazeGrid;
+import hoggle.MazeFile;
+import java.io.File;
+import java.io.IOException;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+// One of the mazes in "test mazes", read relative to the working directory or the hoggle.fixtures property
+@State(Scope.Benchmark)
+public class FixtureMaze extends MazeState {
+  @Param({"maze1", "maze2", "maze3", "maze4"})
+  public String maze;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    File f = new File(System.getProperty("hoggle.fixtures", "test mazes"), maze + ".txt");
+    MazeFile m = MazeFile.readText(f);
+    prepare((BitMazeGrid)m.getGrid(), m.getStart(), m.getEnd(), maze);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() { cleanUp(); }
+}
@@ -0,0 +1,84 @@
+package hoggle.bench;
+
+import hoggle.AStarSolver;
+import hoggle.BidirectionalSolver;
+import hoggle.BitMazeGrid;
+import hoggle.Hoggle;
+import hoggle.JumpPointSolver;
+import hoggle.JunctionGraphSolver;
+import hoggle.MazeFile;
+import hoggle.MazeGrid;
+import hoggle.Path;
+import hoggle.SolutionRenderer;
+import java.io.IOException;
+import java.io.OutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Loading, optimizing, solving and rendering seeded generated mazes across size classes and styles
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeneratedBenchmarks {
+  /* * * Loading * * */
+
+  @Benchmark
+  public MazeGrid loadText(GeneratedMaze m) throws IOException { return MazeFile.readText(m.text).getGrid(); }
+
+  // Read back one cell so the lazily mapped file is actually touched
+  @Benchmark
+  public boolean loadBinary(GeneratedMaze m) throws IOException {
+    MazeFile f = MazeFile.readBinary(m.binary);
+    return f.getGrid().isOpen(f.getEnd().getX(), f.getEnd().getY());
+  }
+
+  /* * * Optimization * * */
+
+  // Dead-end filling is destructive, so each invocation works on a fresh copy of the walls
+  @Benchmark
+  public MazeGrid optimize(GeneratedMaze m) {
+    BitMazeGrid copy = new BitMazeGrid(m.walls);
+    Hoggle h = new Hoggle(copy, m.start, m.end);
+    h.setOutput(null);
+    h.optimize();
+    return copy;
+  }
+
+  /* * * Solving, over the already optimized maze * * */
+
+  // Hoggle's own depth-first search, headless as by default; its optimize pass finds nothing left to fill
+  @Benchmark
+  public Path solveHoggle(GeneratedMaze m) { return new Hoggle(m.optimized, m.start, m.end).solve(); }
+
+  @Benchmark
+  public Path solveAStar(GeneratedMaze m) {
+    return new AStarSolver().solve(m.optimized, m.start.getX(), m.start.getY(), m.end.getX(), m.end.getY());
+  }
+
+  @Benchmark
+  public Path solveJumpPoint(GeneratedMaze m) {
+    return new JumpPointSolver().solve(m.optimized, m.start.getX(), m.start.getY(), m.end.getX(), m.end.getY());
+  }
+
+  @Benchmark
+  public Path solveBidirectional(GeneratedMaze m) {
+    return new BidirectionalSolver().solve(m.optimized, m.start.getX(), m.start.getY(), m.end.getX(), m.end.getY());
+  }
+
+  @Benchmark
+  public Path solveJunctionGraph(GeneratedMaze m) {
+    return new JunctionGraphSolver().solve(m.optimized, m.start.getX(), m.start.getY(), m.end.getX(), m.end.getY());
+  }
+
+  /* * * Rendering * * */
+
+  @Benchmark
+  public void render(GeneratedMaze m) throws IOException {
+    new SolutionRenderer(m.walls, m.start.getX(), m.start.getY(), m.solution, 2).writePng(OutputStream.nullOutputStream());
+  }
+}
@@ -0,0 +1,33 @@
+package hoggle.bench;
+
+import hoggle.BitMazeGrid;
+import hoggle.gen.CellMaze;
+import java.io.IOException;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+// A seeded generated maze for every size class and style
+@State(Scope.Benchmark)
+public class GeneratedMaze extends MazeState {
+  @Param({"31", "255", "1023", "8191"})
+  public int size;
+
+  @Param({"PERFECT", "BRAIDED", "ROOMS"})
+  public String style;
+
+  @Param({"1"})
+  public long seed;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    CellMaze maze = BenchMazes.generate(BenchMazes.Style.valueOf(style), size, seed);
+    prepare((BitMazeGrid)maze.toMazeFile().getGrid(), maze.getStart(), maze.getEnd(), style.toLowerCase() + size);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() { cleanUp(); }
+}
@@ -0,0 +1,44 @@
+package hoggle.bench;
+
+import hoggle.AStarSolver;
+import hoggle.BitMazeGrid;
+import hoggle.Coordinate;
+import hoggle.Hoggle;
+import hoggle.MazeFile;
+import hoggle.Path;
+import java.io.File;
+import java.io.IOException;
+
+// What every benchmark needs of its maze: the walls, the same maze already optimized, a solution to render, and copies on
+// disk in both formats to load
+abstract class MazeState {
+  BitMazeGrid walls, optimized;
+  Coordinate start, end;
+  Path solution;
+  File text, binary;
+
+  void prepare(BitMazeGrid grid, Coordinate start, Coordinate end, String name) throws IOException {
+    this.walls = grid;
+    this.start = start;
+    this.end = end;
+
+    optimized = new BitMazeGrid(grid);
+    Hoggle h = new Hoggle(optimized, start, end);
+    h.setOutput(null);
+    h.optimize();
+    solution = new AStarSolver().solve(optimized, start.getX(), start.getY(), end.getX(), end.getY());
+
+    text = File.createTempFile(name, ".txt");
+    binary = File.createTempFile(name, ".hgl");
+    text.deleteOnExit();
+    binary.deleteOnExit();
+    MazeFile file = new MazeFile(grid, start, end);
+    file.writeText(text);
+    file.writeBinary(binary);
+  }
+
+  void cleanUp() {
+    text.delete();
+    binary.delete();
+  }
+}
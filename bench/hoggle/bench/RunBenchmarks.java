@@ -0,0 +1,26 @@
+package hoggle.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Runs every benchmark, or those matching the regular expressions given, with allocation rates reported by the GC
+// profiler. bench/pom.xml builds everything into bench/target/benchmarks.jar; run this class from it with
+// java -cp bench/target/benchmarks.jar hoggle.bench.RunBenchmarks, from the project root so that "test mazes" is found
+// (or set -Dhoggle.fixtures). The jar's own main class is JMH's, where options such as -p size=255 to pick one size class
+// and -prof gc work the same way
+public class RunBenchmarks {
+  public static void main(String[] args) throws RunnerException {
+    OptionsBuilder options = new OptionsBuilder();
+
+    if (args.length == 0)
+      options.include("hoggle\\.bench\\..*");
+    for (String pattern : args)
+      options.include(pattern);
+
+    Options opts = options.addProfiler(GCProfiler.class).build();
+    new Runner(opts).run();
+  }
+}
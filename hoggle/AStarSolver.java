@@ -0,0 +1,96 @@
+package hoggle;
+
+
+// Shortest-path A* guided by Manhattan distance. The open set is a binary heap of cell indices and all per-cell state
+// lives in flat primitive arrays, so nothing is allocated per cell. Ties in f go to the cell nearer the end, and among
+// those to the one pushed last, so that A* runs straight down one of several equally good corridors instead of widening
+// across all of them. Manhattan distance still leaves every cell with f below the path's length to be expanded, so
+// where a maze's shortest path winds far from the straight line, as in the larger test mazes, A* expands more cells
+// than Hoggle's own exploration, which stops at the first path it finds rather than the shortest
+public class AStarSolver implements Solver {
+  private static final int[] DX = {0, 0, -1, 1}, DY = {-1, 1, 0, 0};
+
+  private long expansions = 0;
+
+  // Layout of the heap keys for the maze being solved: f, then h, then a push counter in whatever bits are left
+  private int fShift, hShift;
+  private long pushes, pushMask;
+
+  @Override
+  public Path solve(MazeGrid maze, int startX, int startY, int endX, int endY) {
+    int width = maze.getWidth(), height = maze.getHeight();
+    assert ((long)width*height <= Integer.MAX_VALUE);
+
+    int start = startY*width + startX, end = endY*width + endX;
+    int[] g = new int[width*height];
+    byte[] from = new byte[width*height]; // Ordinal+1 of the direction that reached a cell; zero while unreached
+    VisitedSet closed = new VisitedSet(width, height, false);
+    IntHeap open = new IntHeap();
+
+    expansions = 0;
+    layKeys(width, height);
+    open.push(start, key(0, Math.abs(endX-startX) + Math.abs(endY-startY)));
+
+    while (!open.isEmpty()) {
+      Solver.checkInterrupted();
+      int cur = open.pop(), cx = cur % width, cy = cur / width;
+
+      // Stale heap entries are skipped rather than decreased in place
+      if (!closed.add(cx, cy))
+        continue;
+
+      expansions++;
+
+      if (cur == end)
+        return path(from, g[end], width, end);
+
+      for (int d = 0; d < 4; d++) {
+        int nx = cx + DX[d], ny = cy + DY[d], n = ny*width + nx;
+
+        if (nx < 0 || nx >= width || ny < 0 || ny >= height || maze.isBlocked(nx, ny) || closed.contains(nx, ny))
+          continue;
+
+        int ng = g[cur] + 1;
+        if ((from[n] == 0 && n != start) || ng < g[n]) {
+          g[n] = ng;
+          from[n] = (byte)(d+1);
+          open.push(n, key(ng, Math.abs(endX-nx) + Math.abs(endY-ny)));
+        }
+      }
+    }
+
+    return null;
+  }
+
+  @Override
+  public long getExpansions() { return expansions; }
+
+  // Size the key fields for some maze. No path or distance exceeds the cell count plus the perimeter, and the counter
+  // only orders ties, so it may wrap without costing the path's optimality
+  private void layKeys(int width, int height) {
+    int hBits = 64 - Long.numberOfLeadingZeros((long)width + height);
+    int fBits = 64 - Long.numberOfLeadingZeros((long)width*height + width + height);
+
+    hShift = 63 - fBits - hBits;
+    assert (hShift >= 0);
+    fShift = hShift + hBits;
+    pushMask = (1L << hShift) - 1;
+    pushes = 0;
+  }
+
+  // Order by f = g + h, breaking ties toward the cell nearer the end and then toward the newest
+  private long key(int g, int h) { return ((long)(g+h) << fShift) | ((long)h << hShift) | (~pushes++ & pushMask); }
+
+  // Walk the came-from directions back from the end
+  private static Path path(byte[] from, int length, int width, int end) {
+    Path moves = new Path(length);
+
+    for (int i = length-1, cur = end; i >= 0; i--) {
+      int d = from[cur]-1;
+      moves.put(i, d);
+      cur -= DY[d]*width + DX[d];
+    }
+
+    return moves;
+  }
+}
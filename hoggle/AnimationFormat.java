@@ -0,0 +1,5 @@
+package hoggle;
+
+// How png animation is saved: PNG_FRAMES writes one stepN.png per frame, while GIF writes a single animation.gif whose
+// frames encode only the cells that changed
+public enum AnimationFormat { PNG_FRAMES, GIF }
@@ -0,0 +1,10 @@
+package hoggle;
+
+// Receives the frames of an animated solve. Each frame is the full row-major RGB map along with the inclusive cell
+// rectangle that changed since the previous frame; sinks must copy whatever they keep, as the map is reused
+public interface AnimationSink {
+  void frame(int[] pixels, int step, int minX, int minY, int maxX, int maxY);
+
+  // Finish writing every frame received and release any resources
+  void close();
+}
@@ -0,0 +1,107 @@
+package hoggle;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+// Draws a grid of characters on an ANSI terminal. Characters are set in a back buffer, and each frame after the first
+// writes only the cells that differ from the front buffer, which holds what is on screen, as a cursor move and a
+// character; a solver step changes two cells, so a frame costs the same however large the grid is. The first frame clears
+// the screen and draws every row. Between frames the cursor is parked below the grid, leaving room for other output
+public class AsciiRenderer {
+  private static final byte ESC = 27;
+
+  private final OutputStream out;
+  private final int width, height;
+  private final char[] front, back;
+  private int[] changed = new int[16];
+  private int changedCount = 0;
+  private boolean drawn = false;
+
+  public AsciiRenderer(OutputStream out, int width, int height) {
+    assert (width > 0 && height > 0);
+
+    this.out = new BufferedOutputStream(out, 1 << 16);
+    this.width = width;
+    this.height = height;
+    this.front = new char[width*height];
+    this.back = new char[width*height];
+    Arrays.fill(back, ' ');
+  }
+
+  // Set the character some cell will show from the next frame on
+  public void set(int x, int y, char c) {
+    int i = y*width + x;
+
+    if (back[i] == c)
+      return;
+
+    // A cell differing from the screen already is already listed; before the first frame every cell is drawn anyway
+    if (drawn && back[i] == front[i]) {
+      if (changedCount == changed.length)
+        changed = Arrays.copyOf(changed, changedCount*2);
+      changed[changedCount++] = i;
+    }
+
+    back[i] = c;
+  }
+
+  // Bring the screen up to date with the back buffer
+  public void draw() throws IOException {
+    if (!drawn) {
+      out.write(ESC);
+      out.write('[');
+      out.write('2');
+      out.write('J');
+      moveTo(0, 0);
+
+      for (int y = 0; y < height; y++) {
+        for (int x = 0; x < width; x++)
+          out.write(back[y*width + x]);
+        out.write('\n');
+      }
+
+      System.arraycopy(back, 0, front, 0, back.length);
+      drawn = true;
+    } else {
+      // Where the cursor is after the last character written, or -1 if it must be moved before the next
+      int cursor = -1;
+
+      for (int n = 0; n < changedCount; n++) {
+        int i = changed[n];
+        if (front[i] == back[i])
+          continue;
+
+        if (i != cursor)
+          moveTo(i % width, i / width);
+        out.write(back[i]);
+
+        front[i] = back[i];
+        cursor = i % width == width-1 ? -1 : i+1;
+      }
+
+      changedCount = 0;
+    }
+
+    // Leave a blank line under the grid
+    moveTo(0, height+1);
+    out.flush();
+  }
+
+  // Write the escape sequence moving the cursor to some zero-based column and row
+  private void moveTo(int column, int row) throws IOException {
+    out.write(ESC);
+    out.write('[');
+    writeNumber(row+1);
+    out.write(';');
+    writeNumber(column+1);
+    out.write('H');
+  }
+
+  private void writeNumber(int n) throws IOException {
+    if (n >= 10)
+      writeNumber(n / 10);
+    out.write('0' + n % 10);
+  }
+}
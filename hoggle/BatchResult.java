@@ -0,0 +1,46 @@
+package hoggle;
+
+// The outcome of one maze solved by a HoggleBatch: either its path, or the error that stopped it
+public final class BatchResult {
+  private final String name;
+  private final Path path;
+  private final Throwable error;
+  private final long expansions, nanos;
+  private final boolean timedOut;
+  private final SolveStats stats;
+
+  BatchResult(String name, Path path, Throwable error, long expansions, long nanos, boolean timedOut, SolveStats stats) {
+    this.name = name;
+    this.path = path;
+    this.error = error;
+    this.expansions = expansions;
+    this.nanos = nanos;
+    this.timedOut = timedOut;
+    this.stats = stats;
+  }
+
+  public String getName() { return name; }
+
+  // The path from start to end, or null if the maze failed, timed out or has no solution
+  public Path getPath() { return path; }
+
+  public Throwable getError() { return error; }
+
+  public boolean isSolved() { return path != null; }
+
+  public boolean isTimedOut() { return timedOut; }
+
+  public long getExpansions() { return expansions; }
+
+  // Wall time spent loading and solving the maze
+  public long getNanos() { return nanos; }
+
+  // Stats of the solve, or null if they weren't collected
+  public SolveStats getStats() { return stats; }
+
+  @Override
+  public String toString() {
+    String outcome = timedOut ? "timed out" : error != null ? "failed: " + error : path == null ? "unsolvable" : path.size() + " steps";
+    return name + " " + outcome + " in " + nanos/1000000 + " ms";
+  }
+}
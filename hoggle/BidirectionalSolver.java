@@ -0,0 +1,103 @@
+package hoggle;
+
+import java.util.Arrays;
+
+// Breadth-first search run from the start and the end at once, one whole level at a time from whichever frontier is
+// smaller, until the two meet. Each cell is owned by the side that reached it first, so one direction byte per cell
+// serves both searches
+public class BidirectionalSolver implements Solver {
+  private static final int[] DX = {0, 0, -1, 1}, DY = {-1, 1, 0, 0};
+  private static final byte FORWARD = 1, BACKWARD = 2;
+
+  private long expansions = 0;
+
+  @Override
+  public Path solve(MazeGrid maze, int startX, int startY, int endX, int endY) {
+    int width = maze.getWidth(), height = maze.getHeight();
+    assert ((long)width*height <= Integer.MAX_VALUE);
+
+    int start = startY*width + startX, end = endY*width + endX;
+    expansions = 0;
+
+    if (start == end)
+      return new Path(0);
+
+    byte[] owner = new byte[width*height];
+    byte[] from = new byte[width*height]; // Ordinal of the direction each side stepped in to reach a cell
+    int[] dist = new int[width*height];
+    int[][] frontier = {null, {start}, {end}};
+    int[] size = {0, 1, 1};
+
+    owner[start] = FORWARD;
+    owner[end] = BACKWARD;
+
+    while (size[FORWARD] > 0 && size[BACKWARD] > 0) {
+      byte side = size[FORWARD] <= size[BACKWARD] ? FORWARD : BACKWARD;
+      int[] level = frontier[side], next = new int[Math.max(16, size[side]*2)];
+      int count = 0, best = Integer.MAX_VALUE, meetA = -1, meetB = -1, meetDir = -1;
+
+      // Expand the whole level so that the shortest of the meetings it finds is kept
+      for (int n = 0; n < size[side]; n++) {
+        Solver.checkInterrupted();
+        int cur = level[n], cx = cur % width, cy = cur / width;
+        expansions++;
+
+        for (int d = 0; d < 4; d++) {
+          int nx = cx + DX[d], ny = cy + DY[d], nb = ny*width + nx;
+
+          if (nx < 0 || nx >= width || ny < 0 || ny >= height || maze.isBlocked(nx, ny))
+            continue;
+
+          if (owner[nb] == 0) {
+            owner[nb] = side;
+            from[nb] = (byte)d;
+            dist[nb] = dist[cur] + 1;
+
+            if (count == next.length)
+              next = Arrays.copyOf(next, count*2);
+            next[count++] = nb;
+          } else if (owner[nb] != side && dist[cur] + 1 + dist[nb] < best) {
+            best = dist[cur] + 1 + dist[nb];
+            meetA = cur;
+            meetB = nb;
+            meetDir = d;
+          }
+        }
+      }
+
+      if (meetA >= 0)
+        return side == FORWARD ? path(from, dist[meetA], width, start, end, meetA, meetB, meetDir, best)
+                               : path(from, dist[meetB], width, start, end, meetB, meetA, meetDir ^ 1, best);
+
+      frontier[side] = next;
+      size[side] = count;
+    }
+
+    return null;
+  }
+
+  @Override
+  public long getExpansions() { return expansions; }
+
+  // Splice the forward half ending at one cell i steps from the start, the step across, and the backward half beginning at the neighbor
+  private static Path path(byte[] from, int i, int width, int start, int end, int fwd, int bwd, int across, int length) {
+    Path moves = new Path(length);
+
+    moves.put(i, across);
+
+    for (int cur = fwd, n = i-1; cur != start; n--) {
+      int d = from[cur];
+      moves.put(n, d);
+      cur -= DY[d]*width + DX[d];
+    }
+
+    // The backward search stepped away from the end, so its moves are retraced in the opposite direction
+    for (int cur = bwd, n = i+1; cur != end; n++) {
+      int d = from[cur];
+      moves.put(n, d ^ 1);
+      cur -= DY[d]*width + DX[d];
+    }
+
+    return moves;
+  }
+}
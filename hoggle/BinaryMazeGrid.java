@@ -0,0 +1,93 @@
+package hoggle;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+
+// A maze grid used in place from a read-only memory-mapped binary maze file. The grid is row-major bits marking open
+// cells, packed into little-endian longs. The walls can't be changed, and roadblocks are kept in memory, apart from the
+// mapping
+public class BinaryMazeGrid implements MazeGrid {
+  private static final int SEGMENT_SHIFT = 27; // 2^27 longs, or 1 GiB, per mapped segment
+  private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+  private final int width, height;
+  private final LongBuffer[] segments;
+  private final RoadblockSet roadblocks;
+  private long hash;
+  private boolean hashed = false;
+
+  // Map the packed grid found at some offset of a channel open for reading
+  BinaryMazeGrid(FileChannel channel, long offset, int width, int height) throws IOException {
+    this.width = width;
+    this.height = height;
+    this.roadblocks = new RoadblockSet((long)width*height);
+
+    long longs = longsFor(width, height);
+    if (channel.size() < offset + longs*8)
+      throw new IOException("Binary maze is truncated");
+
+    segments = new LongBuffer[(int)((longs + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+    for (int i = 0; i < segments.length; i++) {
+      long first = (long)i << SEGMENT_SHIFT, count = Math.min(1L << SEGMENT_SHIFT, longs - first);
+      segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset + first*8, count*8).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+    }
+  }
+
+  // Number of words a grid of some size occupies on disk
+  static long longsFor(int width, int height) { return ((long)width*height + 63) >>> 6; }
+
+  @Override
+  public int getWidth() { return width; }
+
+  @Override
+  public int getHeight() { return height; }
+
+  // The mapping is only read, and roadblock pages are allocated under a lock
+  @Override
+  public boolean allowsConcurrentRows() { return true; }
+
+  // The walls never change, so their hash is computed from the mapped words once
+  @Override
+  public long contentHash() {
+    if (!hashed) {
+      long h = BitMazeGrid.hashSeed(width, height), words = longsFor(width, height);
+      for (long w = 0; w < words; w++)
+        h = BitMazeGrid.hashWord(h, get(w));
+      hash = h;
+      hashed = true;
+    }
+
+    return hash;
+  }
+
+  @Override
+  public boolean isOpen(int x, int y) {
+    long i = index(x, y);
+    return (get(i >>> 6) & (1L << i)) != 0;
+  }
+
+  // The walls are read from the file, so they can't be changed
+  @Override
+  public void setOpen(int x, int y, boolean open) { throw new UnsupportedOperationException("Binary maze walls are read-only"); }
+
+  @Override
+  public boolean isBlocked(int x, int y) {
+    long i = index(x, y);
+    return (get(i >>> 6) & (1L << i)) == 0 || roadblocks.contains(i);
+  }
+
+  @Override
+  public boolean isRoadblock(int x, int y) { return roadblocks.contains(index(x, y)); }
+
+  @Override
+  public void setRoadblock(int x, int y, boolean roadblock) {
+    assert isOpen(x, y);
+    roadblocks.set(index(x, y), roadblock);
+  }
+
+  private long index(int x, int y) { return (long)y*width + x; }
+
+  private long get(long at) { return segments[(int)(at >>> SEGMENT_SHIFT)].get((int)(at & SEGMENT_MASK)); }
+}
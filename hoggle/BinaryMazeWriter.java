@@ -0,0 +1,69 @@
+package hoggle;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+// Streams a maze into the binary format one cell at a time in row-major order, holding only a small output buffer, so
+// mazes of any size can be written without ever having their whole grid in memory
+public class BinaryMazeWriter implements MazeWriter {
+  private final FileOutputStream file;
+  private final FileChannel channel;
+  private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+  private final long cells;
+  private long written = 0, word = 0;
+
+  public BinaryMazeWriter(File f, int width, int height, Coordinate start, Coordinate end) throws IOException {
+    this.cells = (long)width*height;
+    this.file = new FileOutputStream(f);
+    this.channel = file.getChannel();
+
+    buffer.putInt(MazeFile.MAGIC).putInt(MazeFile.VERSION).putInt(width).putInt(height);
+    buffer.putInt(start.getX()).putInt(start.getY()).putInt(end.getX()).putInt(end.getY());
+  }
+
+  @Override
+  public void write(boolean open) throws IOException {
+    assert (written < cells);
+
+    if (open)
+      word |= 1L << written;
+
+    if ((++written & 63) == 0)
+      flushWord();
+  }
+
+  // Pad out the last word as walls and finish the file; every cell must have been written
+  @Override
+  public void close() throws IOException {
+    assert (written == cells);
+
+    try {
+      if ((written & 63) != 0)
+        flushWord();
+
+      drain();
+    } finally {
+      file.close();
+    }
+  }
+
+  // Emit the open word for the last 64 cells
+  private void flushWord() throws IOException {
+    if (buffer.remaining() < 8)
+      drain();
+
+    buffer.putLong(word);
+    word = 0;
+  }
+
+  private void drain() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining())
+      channel.write(buffer);
+    buffer.clear();
+  }
+}
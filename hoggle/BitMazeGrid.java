@@ -0,0 +1,215 @@
+package hoggle;
+
+import java.util.Arrays;
+
+// A maze grid packed one bit per cell into a long[], row-major, marking open cells. The first roadblock adds a second
+// plane of the same layout marking blocked cells, walls and roadblocks alike, so that isBlocked is a single read whether
+// or not the grid is optimized, while a grid without roadblocks costs a single bit per cell
+public class BitMazeGrid implements MazeGrid {
+  private final int width, height;
+  private final long[] open;
+
+  // Null until a roadblock is placed, or until prepareRoadblocks() is called ahead of placing them from several threads
+  private long[] blocked;
+  private long hash;
+  private boolean hashed = false;
+
+  // Create a grid of some size with every cell walled
+  public BitMazeGrid(int width, int height) {
+    assert (width > 0 && height > 0);
+    assert ((long)width*height <= 64L*Integer.MAX_VALUE);
+
+    this.width = width;
+    this.height = height;
+    this.open = new long[(int)(((long)width*height + 63) >>> 6)];
+  }
+
+  // Adapt a maze in the classic boolean[row][col] layout, where true marks an open cell
+  public BitMazeGrid(boolean[][] maze) {
+    this(maze[0].length, maze.length);
+
+    for (int y = 0; y < height; y++) {
+      assert (maze[y].length == width);
+
+      for (int x = 0; x < width; x++)
+        if (maze[y][x])
+          setOpen(x, y, true);
+    }
+  }
+
+  // Copy another grid, roadblocks included
+  public BitMazeGrid(BitMazeGrid source) { this(source, true); }
+
+  private BitMazeGrid(BitMazeGrid source, boolean withRoadblocks) {
+    long[] b = source.blocked;
+
+    this.width = source.width;
+    this.height = source.height;
+    this.open = source.open.clone();
+    this.blocked = withRoadblocks && b != null ? b.clone() : null;
+    this.hash = source.hash;
+    this.hashed = source.hashed;
+  }
+
+  // Copy another grid's walls, leaving out its roadblocks
+  public static BitMazeGrid wallsOf(MazeGrid source) {
+    BitMazeGrid grid;
+
+    if (source instanceof BitMazeGrid)
+      grid = new BitMazeGrid((BitMazeGrid)source, false);
+    else {
+      grid = new BitMazeGrid(source.getWidth(), source.getHeight());
+      for (int y = 0; y < grid.height; y++)
+        for (int x = 0; x < grid.width; x++)
+          if (source.isOpen(x, y))
+            grid.setOpen(x, y, true);
+    }
+
+    return grid;
+  }
+
+  // Bands of rows a word apart touch disjoint words of both planes, once the blocked plane is allocated up front
+  @Override
+  public boolean allowsConcurrentRows() { return true; }
+
+  @Override
+  public void prepareRoadblocks() { blockedPlane(); }
+
+  // Return a 64-bit hash of the grid's size and walls, reading a word of 64 cells at a time. It is remembered until the
+  // walls next change, so asking again is free
+  @Override
+  public long contentHash() {
+    if (!hashed) {
+      long h = hashSeed(width, height);
+      for (long word : open)
+        h = hashWord(h, word);
+      hash = h;
+      hashed = true;
+    }
+
+    return hash;
+  }
+
+  // Return the hash of any grid's walls, packing its cells into words the same way this grid does
+  static long contentHash(MazeGrid grid) {
+    long h = hashSeed(grid.getWidth(), grid.getHeight()), word = 0, i = 0;
+
+    for (int y = 0; y < grid.getHeight(); y++)
+      for (int x = 0; x < grid.getWidth(); x++) {
+        if (grid.isOpen(x, y))
+          word |= 1L << i;
+        if ((++i & 63) == 0) {
+          h = hashWord(h, word);
+          word = 0;
+        }
+      }
+
+    return (i & 63) == 0 ? h : hashWord(h, word);
+  }
+
+  static long hashSeed(int width, int height) { return mix(((long)width << 32) | height); }
+
+  static long hashWord(long h, long word) { return mix(h ^ word) + 0x9e3779b97f4a7c15L; }
+
+  // Return whether or not another grid has the same size and walls as this one
+  boolean sameWalls(MazeGrid other) {
+    if (other.getWidth() != width || other.getHeight() != height)
+      return false;
+    if (other instanceof BitMazeGrid)
+      return Arrays.equals(open, ((BitMazeGrid)other).open);
+
+    for (int y = 0; y < height; y++)
+      for (int x = 0; x < width; x++)
+        if (other.isOpen(x, y) != isOpen(x, y))
+          return false;
+    return true;
+  }
+
+  // The SplitMix64 finalizer
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+
+  @Override
+  public int getWidth() { return width; }
+
+  @Override
+  public int getHeight() { return height; }
+
+  @Override
+  public boolean isOpen(int x, int y) {
+    long i = index(x, y);
+    return (open[(int)(i >>> 6)] & (1L << i)) != 0;
+  }
+
+  // Opening a cell also clears any roadblock on it, and walling it blocks it
+  @Override
+  public void setOpen(int x, int y, boolean isOpen) {
+    long i = index(x, y);
+    int w = (int)(i >>> 6);
+    long[] b = blocked;
+
+    hashed = false;
+    if (isOpen) {
+      open[w] |= 1L << i;
+      if (b != null)
+        b[w] &= ~(1L << i);
+    } else {
+      open[w] &= ~(1L << i);
+      if (b != null)
+        b[w] |= 1L << i;
+    }
+  }
+
+  @Override
+  public boolean isBlocked(int x, int y) {
+    long i = index(x, y);
+    long[] b = blocked;
+    return b == null ? (open[(int)(i >>> 6)] & (1L << i)) == 0 : (b[(int)(i >>> 6)] & (1L << i)) != 0;
+  }
+
+  @Override
+  public boolean isRoadblock(int x, int y) {
+    long i = index(x, y);
+    long[] b = blocked;
+    return b != null && (open[(int)(i >>> 6)] & b[(int)(i >>> 6)] & (1L << i)) != 0;
+  }
+
+  @Override
+  public void setRoadblock(int x, int y, boolean roadblock) {
+    assert isOpen(x, y);
+
+    long i = index(x, y);
+    long[] b = blocked;
+
+    if (b == null) {
+      if (!roadblock)
+        return;
+      b = blockedPlane();
+    }
+
+    if (roadblock)
+      b[(int)(i >>> 6)] |= 1L << i;
+    else
+      b[(int)(i >>> 6)] &= ~(1L << i);
+  }
+
+  // Return the blocked plane, allocating it with every wall blocked if no roadblock has been placed yet
+  private long[] blockedPlane() {
+    long[] b = blocked;
+
+    if (b == null) {
+      b = new long[open.length];
+      for (int w = 0; w < b.length; w++)
+        b[w] = ~open[w];
+      blocked = b;
+    }
+
+    return b;
+  }
+
+  // Bit index of some position; Java masks the shift distance, so callers need only split off the word
+  private long index(int x, int y) { return (long)y*width + x; }
+}
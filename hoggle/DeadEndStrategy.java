@@ -0,0 +1,5 @@
+package hoggle;
+
+// How the optimization phase eliminates dead-ends: DRONE deploys a drone per dead-end to roadblock its entrance, while
+// WORKLIST fills every dead-end cell in a single pass, collapsing each corridor as it is emptied
+public enum DeadEndStrategy { DRONE, WORKLIST }
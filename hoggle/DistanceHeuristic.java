@@ -0,0 +1,25 @@
+package hoggle;
+
+// Manhattan plus truncated straight-line distance to the end, computed on demand in integer arithmetic
+public class DistanceHeuristic implements Heuristic {
+  private final int endX, endY;
+
+  public DistanceHeuristic(int endX, int endY) {
+    this.endX = endX;
+    this.endY = endY;
+  }
+
+  @Override
+  public int cost(int x, int y) {
+    long dx = Math.abs(endX-x), dy = Math.abs(endY-y);
+    return (int)(dx + dy + isqrt(dx*dx + dy*dy));
+  }
+
+  // Floor of the square root; the floating-point estimate is corrected so that it is exact for any long
+  private static long isqrt(long n) {
+    long r = (long)Math.sqrt(n);
+    while (r*r > n) r--;
+    while ((r+1)*(r+1) <= n) r++;
+    return r;
+  }
+}
@@ -1,13 +1,15 @@
 package hoggle;
 
-import java.util.ArrayList;
-
 public final class Drone extends Hoggle {
   private int startX, startY;
 
-  // Create a drone in some maze at some dead-end; maze not cloned for efficiency purposes
-  public Drone(boolean[][] maze, Coordinate pos, Coordinate mazeStart, Coordinate mazeEnd, ArrayList<Coordinate> rbs) {
+  // Create a drone in some maze at some dead-end; maze not cloned for efficiency purposes, so the drone sees the parent's
+  // roadblocks as they are placed. Drones run one at a time, so they share a single trail-keeping visited set which each
+  // drone clears on deployment
+  public Drone(MazeGrid maze, Coordinate pos, Coordinate mazeStart, Coordinate mazeEnd, VisitedSet trail) {
     super(maze);
+    visitedCells = trail;
+    visitedCells.clear();
     x = pos.getX();
     y = pos.getY();
     startX = mazeStart.getX();
@@ -15,9 +17,6 @@ public final class Drone extends Hoggle {
     endX = mazeEnd.getX();
     endY = mazeEnd.getY();
 
-    for (Coordinate c : rbs)
-      roadblocks.add(c);
-
     assert (wallCount(x, y) == 3);
   }
 
@@ -67,7 +66,8 @@ public final class Drone extends Hoggle {
     }
 
     // Done!
-    return visitedCoords.size() >= 2 ? visitedCoords.get(visitedCoords.size()-2) : null;
+    int n = visitedCells.getTrailSize();
+    return n >= 2 ? new Coordinate(visitedCells.getTrailX(n-2), visitedCells.getTrailY(n-2)) : null;
   }
 
   // Step once in some direction
@@ -75,7 +75,7 @@ public final class Drone extends Hoggle {
     x += (dir == Direction.LEFT || dir == Direction.RIGHT) ? -1+2*(dir == Direction.RIGHT ? 1 : 0) : 0;
     y += (dir == Direction.UP || dir == Direction.DOWN) ? -1+2*(dir == Direction.DOWN ? 1 : 0) : 0;
 
-    visitedCoords.add(new Coordinate(x, y));
+    visitedCells.add(x, y);
   }
 
   // Return if a position is the maze's start or end
@@ -0,0 +1,244 @@
+package hoggle;
+
+import java.util.Arrays;
+
+// A maze whose walls change between solves. Rather than optimizing and solving from scratch after every change, it keeps
+// the state of its last search and repairs it: the search is Lifelong Planning A* (Koenig & Likhachev), which after a
+// change re-expands only the cells whose distance from the start the change could affect. Dead-ends are roadblocked as in
+// Hoggle's optimization phase and kept up to date locally too: closing a cell fills whatever dead-ends it creates, and
+// opening one next to a roadblock clears the roadblocked region around it and fills back whatever is still a dead-end.
+// The start and end are fixed, and the maze given is copied, so the caller's grid never changes
+public class DynamicMaze {
+  private static final int[] DX = {0, 0, -1, 1}, DY = {-1, 1, 0, 0};
+  private static final int INFINITY = Integer.MAX_VALUE/4;
+
+  private final BitMazeGrid maze;
+  private final int width, height, start, end, endX, endY;
+  private final int[] g, rhs; // Distance from the start as of the last expansion, and as its neighbors currently imply
+  private final IntHeap open = new IntHeap();
+  private int[] changed = new int[16], region = new int[16];
+  private int changedCount = 0;
+  private long expansions = 0;
+
+  public DynamicMaze(MazeGrid maze, Coordinate startPosition, Coordinate endPosition) {
+    assert ((long)maze.getWidth()*maze.getHeight() <= Integer.MAX_VALUE);
+
+    this.maze = BitMazeGrid.wallsOf(maze);
+    this.width = maze.getWidth();
+    this.height = maze.getHeight();
+    this.start = startPosition.getY()*width + startPosition.getX();
+    this.end = endPosition.getY()*width + endPosition.getX();
+    this.endX = endPosition.getX();
+    this.endY = endPosition.getY();
+    this.g = new int[width*height];
+    this.rhs = new int[width*height];
+
+    assert (this.maze.isOpen(startPosition.getX(), startPosition.getY()) && this.maze.isOpen(endX, endY));
+
+    for (int cell = 0; cell < width*height; cell++)
+      fill(cell);
+    changed = new int[16];
+    changedCount = 0;
+
+    Arrays.fill(g, INFINITY);
+    Arrays.fill(rhs, INFINITY);
+    rhs[start] = 0;
+    open.push(start, key(start));
+  }
+
+  // Return the maze as it currently stands, roadblocks included; it must not be changed except through setWall()
+  public MazeGrid getGrid() { return maze; }
+
+  // Return the number of cells expanded by the last resolve
+  public long getExpansions() { return expansions; }
+
+  /* * * CHANGES * * */
+
+  // Open or close some cell other than the start or end. The search learns of every cell whose blocked state changes,
+  // the cell itself and any roadblocks placed or cleared as a result, when it is next resolved
+  public void setWall(int x, int y, boolean wall) {
+    int cell = y*width + x;
+    assert (x >= 0 && x < width && y >= 0 && y < height && cell != start && cell != end);
+
+    if (wall == !maze.isOpen(x, y))
+      return;
+
+    if (wall) {
+      boolean wasBlocked = maze.isBlocked(x, y);
+      maze.setOpen(x, y, false);
+      if (!wasBlocked)
+        changed(cell);
+
+      // Closing a cell can only turn its neighbors into dead-ends
+      for (int d = 0; d < 4; d++)
+        if (inBounds(x + DX[d], y + DY[d]))
+          fill(cell + DY[d]*width + DX[d]);
+    } else {
+      maze.setOpen(x, y, true);
+      changed(cell);
+      reopen(cell);
+    }
+  }
+
+  // Clear every roadblock connected to a newly opened cell, since any of them might now lie between two open regions,
+  // then fill back those that are still dead-ends. A roadblocked region hangs off the rest of the maze by one cell, so
+  // only regions touching the opened cell can have changed
+  private void reopen(int cell) {
+    int size = 0;
+
+    for (int d = 0; d < 4; d++) {
+      int x = cell % width + DX[d], y = cell / width + DY[d];
+      if (inBounds(x, y) && maze.isRoadblock(x, y)) {
+        maze.setRoadblock(x, y, false);
+        region = push(region, size++, y*width + x);
+      }
+    }
+
+    for (int i = 0; i < size; i++) {
+      int cur = region[i];
+      changed(cur);
+
+      for (int d = 0; d < 4; d++) {
+        int x = cur % width + DX[d], y = cur / width + DY[d];
+        if (inBounds(x, y) && maze.isRoadblock(x, y)) {
+          maze.setRoadblock(x, y, false);
+          region = push(region, size++, y*width + x);
+        }
+      }
+    }
+
+    fill(cell);
+    for (int i = 0; i < size; i++)
+      fill(region[i]);
+  }
+
+  // Roadblock some cell if it is an open dead-end other than the start or end, then follow the corridor it opened onto
+  // while that keeps being one, the same fill Hoggle's optimization phase does
+  private void fill(int cell) {
+    int x = cell % width, y = cell / width;
+
+    while (!maze.isBlocked(x, y) && openNeighbors(x, y) <= 1 && y*width + x != start && y*width + x != end) {
+      maze.setRoadblock(x, y, true);
+      changed(y*width + x);
+
+      int d = 0;
+      while (d < 4 && !passable(x + DX[d], y + DY[d]))
+        d++;
+      if (d == 4)
+        break;
+
+      x += DX[d];
+      y += DY[d];
+    }
+  }
+
+  /* * * SEARCH * * */
+
+  // Return a shortest path from the start to the end through the maze as it now stands, or null if there is none
+  public Path resolve() {
+    expansions = 0;
+
+    for (int i = 0; i < changedCount; i++) {
+      int cell = changed[i], x = cell % width, y = cell / width;
+      update(cell);
+      for (int d = 0; d < 4; d++)
+        if (inBounds(x + DX[d], y + DY[d]))
+          update(cell + DY[d]*width + DX[d]);
+    }
+    changedCount = 0;
+
+    while (!open.isEmpty() && (open.peekKey() < key(end) || rhs[end] != g[end])) {
+      long k = open.peekKey();
+      int cur = open.pop();
+
+      // Entries are never removed or decreased in place, so skip those that are out of date
+      if (g[cur] == rhs[cur])
+        continue;
+      if (key(cur) > k) {
+        open.push(cur, key(cur));
+        continue;
+      }
+
+      expansions++;
+      int x = cur % width, y = cur / width;
+
+      if (g[cur] > rhs[cur])
+        g[cur] = rhs[cur];
+      else {
+        g[cur] = INFINITY;
+        update(cur);
+      }
+
+      for (int d = 0; d < 4; d++)
+        if (inBounds(x + DX[d], y + DY[d]))
+          update(cur + DY[d]*width + DX[d]);
+    }
+
+    return g[end] >= INFINITY ? null : path();
+  }
+
+  // Recompute a cell's distance as implied by its neighbors, queueing it if that differs from the distance last expanded
+  private void update(int cell) {
+    if (cell != start) {
+      int x = cell % width, y = cell / width, best = INFINITY;
+
+      if (!maze.isBlocked(x, y))
+        for (int d = 0; d < 4; d++)
+          if (passable(x + DX[d], y + DY[d]))
+            best = Math.min(best, g[cell + DY[d]*width + DX[d]] + 1);
+
+      rhs[cell] = Math.min(best, INFINITY);
+    }
+
+    if (g[cell] != rhs[cell])
+      open.push(cell, key(cell));
+  }
+
+  // Order by f = min(g, rhs) + h, then by min(g, rhs)
+  private long key(int cell) {
+    int m = Math.min(g[cell], rhs[cell]);
+    return ((long)(m + Math.abs(endX - cell % width) + Math.abs(endY - cell / width)) << 32) | m;
+  }
+
+  // Walk back from the end, each step to the neighbor nearest the start
+  private Path path() {
+    Path moves = new Path(g[end]);
+
+    for (int i = g[end]-1, cur = end; i >= 0; i--) {
+      int x = cur % width, y = cur / width, best = -1;
+
+      for (int d = 0; d < 4; d++)
+        if (passable(x + DX[d], y + DY[d]) && (best < 0 || g[cur + DY[d]*width + DX[d]] < g[cur + DY[best]*width + DX[best]]))
+          best = d;
+
+      // The step is taken from the neighbor toward this cell, the opposite of the way back
+      moves.put(i, best ^ 1);
+      cur += DY[best]*width + DX[best];
+    }
+
+    return moves;
+  }
+
+  /* * * UTIL * * */
+
+  private boolean inBounds(int x, int y) { return x >= 0 && x < width && y >= 0 && y < height; }
+
+  private boolean passable(int x, int y) { return inBounds(x, y) && !maze.isBlocked(x, y); }
+
+  private int openNeighbors(int x, int y) {
+    int n = 0;
+    for (int d = 0; d < 4; d++)
+      if (passable(x + DX[d], y + DY[d]))
+        n++;
+    return n;
+  }
+
+  private void changed(int cell) { changed = push(changed, changedCount++, cell); }
+
+  private static int[] push(int[] list, int size, int value) {
+    if (size == list.length)
+      list = Arrays.copyOf(list, size*2);
+    list[size] = value;
+    return list;
+  }
+}
@@ -0,0 +1,180 @@
+package hoggle;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.imageio.ImageIO;
+
+// Writes animation frames as numbered PNGs on background threads. The solving thread only copies pixels into one of a
+// fixed pool of frame buffers; workers upscale, encode and write them, then hand the buffers back to the pool. Each buffer
+// remembers the rectangle changed since it was last filled, so refilling it copies only that, which for a solver's steps
+// is a few cells whatever the size of the maze. Frames that can't be saved are counted; anything else going wrong in a
+// worker is thrown from close(), and never leaves the buffer out of the pool
+public class FrameWriter implements AnimationSink {
+  // What submit() does when every pooled buffer is still waiting to be written: wait for one, drop the frame, or wait
+  // only for every Nth frame and drop the rest
+  public enum Overflow { BLOCK, DROP, SAMPLE }
+
+  private static final class Frame {
+    final int[] pixels;
+    int step;
+
+    // Rectangle changed since the pixels were last filled, empty when maxX < 0; only used by the submitting thread
+    int minX, minY, maxX = -1, maxY;
+
+    Frame(int size) { pixels = new int[size]; }
+
+    void grow(int x0, int y0, int x1, int y1) {
+      if (maxX < 0) {
+        minX = x0;
+        minY = y0;
+        maxX = x1;
+        maxY = y1;
+        return;
+      }
+
+      minX = Math.min(minX, x0);
+      minY = Math.min(minY, y0);
+      maxX = Math.max(maxX, x1);
+      maxY = Math.max(maxY, y1);
+    }
+  }
+
+  private final int width, height, scale, sampleEvery;
+  private final Overflow overflow;
+  private final File directory;
+  private final ArrayBlockingQueue<Frame> free, pending;
+  private final Frame[] pool;
+  private final Frame poison = new Frame(0);
+  private final Thread[] workers;
+  private final AtomicInteger failed = new AtomicInteger();
+  private final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+  private int dropped = 0;
+
+  public FrameWriter(File directory, int width, int height, int scale, int threads, int buffers, Overflow overflow, int sampleEvery) {
+    assert (threads >= 1 && buffers >= 1 && sampleEvery >= 1);
+
+    this.directory = directory;
+    this.width = width;
+    this.height = height;
+    this.scale = scale;
+    this.overflow = overflow;
+    this.sampleEvery = sampleEvery;
+    this.free = new ArrayBlockingQueue<Frame>(buffers);
+    this.pending = new ArrayBlockingQueue<Frame>(buffers + threads);
+
+    pool = new Frame[buffers];
+    for (int i = 0; i < buffers; i++) {
+      pool[i] = new Frame(width*height);
+      pool[i].grow(0, 0, width-1, height-1);
+      free.add(pool[i]);
+    }
+
+    workers = new Thread[threads];
+    for (int i = 0; i < threads; i++) {
+      workers[i] = new Thread(this::work, "hoggle-frame-writer-" + i);
+      workers[i].setDaemon(true);
+      workers[i].start();
+    }
+  }
+
+  // Queue a copy of some row-major pixels to be written as the frame for some step
+  public void submit(int[] pixels, int step) { frame(pixels, step, 0, 0, width-1, height-1); }
+
+  // Queue a copy of some row-major pixels as the frame for some step, given every cell changed since the last frame lies
+  // in some rectangle. Frames must all come from one thread
+  @Override
+  public void frame(int[] pixels, int step, int minX, int minY, int maxX, int maxY) {
+    // Dropped frames' changes still have to reach every buffer
+    for (Frame b : pool)
+      b.grow(minX, minY, maxX, maxY);
+
+    Frame f = free.poll();
+
+    try {
+      if (f == null) {
+        if (overflow == Overflow.DROP || (overflow == Overflow.SAMPLE && step % sampleEvery != 0)) {
+          dropped++;
+          return;
+        }
+
+        f = free.take();
+      }
+
+      for (int y = f.minY, n = f.maxX - f.minX + 1; y <= f.maxY; y++)
+        System.arraycopy(pixels, y*width + f.minX, f.pixels, y*width + f.minX, n);
+      f.maxX = -1;
+      f.step = step;
+      pending.put(f);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // Wait for every queued frame to be written and stop the workers, then throw the first error a worker hit, if any
+  @Override
+  public void close() {
+    try {
+      for (int i = 0; i < workers.length; i++)
+        pending.put(poison);
+      for (Thread t : workers)
+        t.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    Throwable t = error.getAndSet(null);
+    if (t instanceof RuntimeException)
+      throw (RuntimeException)t;
+    if (t instanceof Error)
+      throw (Error)t;
+    if (t != null)
+      throw new IllegalStateException("Failed to write animation frame", t);
+  }
+
+  public int getDropped() { return dropped; }
+
+  public int getFailed() { return failed.get(); }
+
+  // Worker loop; each worker upscales into its own image, so encoding needs no locking
+  private void work() {
+    BufferedImage scaled = new BufferedImage(width*scale, height*scale, BufferedImage.TYPE_INT_RGB);
+    int[] raster = ((DataBufferInt)scaled.getRaster().getDataBuffer()).getData();
+
+    try {
+      for (Frame f = pending.take(); f != poison; f = pending.take()) {
+        int step = f.step;
+
+        // The buffer goes back as soon as it is upscaled, or failed to be; the pool never holds more than it started with
+        try {
+          PixelScaler.upscale(f.pixels, width, height, raster, scale);
+        } catch (Throwable t) {
+          fail(t);
+          continue;
+        } finally {
+          free.add(f);
+        }
+
+        try {
+          ImageIO.write(scaled, "png", new File(directory, "step" + step + ".png"));
+        } catch (IOException e) {
+          failed.incrementAndGet();
+        } catch (Throwable t) {
+          fail(t);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // Count a frame lost to something other than an I/O error, keeping the first such error for close() to throw
+  private void fail(Throwable t) {
+    failed.incrementAndGet();
+    error.compareAndSet(null, t);
+  }
+}
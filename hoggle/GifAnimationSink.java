@@ -0,0 +1,164 @@
+package hoggle;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.io.File;
+import java.io.IOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOInvalidTreeException;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+
+// Writes an animation as a single looping GIF. The first frame is the whole map; every later frame covers only the
+// rectangle that changed and is drawn over the frames before it, so a step usually costs a couple of cells
+public class GifAnimationSink implements AnimationSink {
+  private static final String FORMAT = "javax_imageio_gif_image_1.0";
+
+  private final int width, scale, delay;
+  private final int[] palette;
+  private final IndexColorModel colors;
+  private final ImageWriter writer;
+  private final ImageOutputStream out;
+  private boolean first = true, failed = false;
+
+  // Palette entries are the only colors the map may contain; delay is in hundredths of a second per frame
+  public GifAnimationSink(File file, int width, int scale, int[] palette, int delay) throws IOException {
+    this.width = width;
+    this.scale = scale;
+    this.delay = delay;
+    this.palette = palette.clone();
+
+    byte[] r = new byte[palette.length], g = new byte[palette.length], b = new byte[palette.length];
+    for (int i = 0; i < palette.length; i++) {
+      r[i] = (byte)(palette[i] >>> 16);
+      g[i] = (byte)(palette[i] >>> 8);
+      b[i] = (byte)palette[i];
+    }
+
+    colors = new IndexColorModel(8, palette.length, r, g, b);
+    writer = ImageIO.getImageWritersByFormatName("gif").next();
+    file.delete();
+    out = ImageIO.createImageOutputStream(file);
+    writer.setOutput(out);
+    writer.prepareWriteSequence(null);
+  }
+
+  @Override
+  public void frame(int[] pixels, int step, int minX, int minY, int maxX, int maxY) {
+    if (failed)
+      return;
+
+    int w = maxX-minX+1, h = maxY-minY+1, sw = w*scale;
+    BufferedImage img = new BufferedImage(sw, h*scale, BufferedImage.TYPE_BYTE_INDEXED, colors);
+    byte[] raster = ((DataBufferByte)img.getRaster().getDataBuffer()).getData();
+
+    // Map each changed cell to its palette index and upscale it in place
+    for (int y = 0; y < h; y++) {
+      int row = y*scale*sw;
+
+      for (int x = 0; x < w; x++) {
+        byte index = colorIndex(pixels[(minY+y)*width + minX+x]);
+        for (int s = 0; s < scale; s++)
+          raster[row + x*scale + s] = index;
+      }
+
+      for (int s = 1; s < scale; s++)
+        System.arraycopy(raster, row, raster, row + s*sw, sw);
+    }
+
+    try {
+      IIOMetadata meta = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(img), null);
+      describe(meta, minX*scale, minY*scale);
+      writer.writeToSequence(new IIOImage(img, null, meta), null);
+      first = false;
+    } catch (IOException e) {
+      failed = true;
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      writer.endWriteSequence();
+      out.close();
+    } catch (IOException e) {
+      failed = true;
+    } finally {
+      writer.dispose();
+    }
+  }
+
+  public boolean hasFailed() { return failed; }
+
+  private byte colorIndex(int rgb) {
+    for (int i = 0; i < palette.length; i++)
+      if (((palette[i] ^ rgb) & 0xffffff) == 0)
+        return (byte)i;
+    return 0;
+  }
+
+  // Position a frame, give it the palette, keep it on screen under the frames after it, and make the first frame loop the
+  // animation forever
+  private void describe(IIOMetadata meta, int left, int top) throws IIOInvalidTreeException {
+    IIOMetadataNode root = (IIOMetadataNode)meta.getAsTree(FORMAT);
+
+    IIOMetadataNode descriptor = child(root, "ImageDescriptor");
+    descriptor.setAttribute("imageLeftPosition", Integer.toString(left));
+    descriptor.setAttribute("imageTopPosition", Integer.toString(top));
+    descriptor.setAttribute("interlaceFlag", "FALSE");
+
+    // The default table is a generic one; GIF tables hold a power of two entries
+    IIOMetadataNode table = child(root, "LocalColorTable");
+    while (table.hasChildNodes())
+      table.removeChild(table.getFirstChild());
+
+    int size = 2;
+    while (size < palette.length)
+      size *= 2;
+
+    table.setAttribute("sizeOfLocalColorTable", Integer.toString(size));
+    table.setAttribute("sortFlag", "FALSE");
+
+    for (int i = 0; i < size; i++) {
+      int rgb = palette[Math.min(i, palette.length-1)];
+      IIOMetadataNode entry = new IIOMetadataNode("ColorTableEntry");
+      entry.setAttribute("index", Integer.toString(i));
+      entry.setAttribute("red", Integer.toString((rgb >>> 16) & 0xff));
+      entry.setAttribute("green", Integer.toString((rgb >>> 8) & 0xff));
+      entry.setAttribute("blue", Integer.toString(rgb & 0xff));
+      table.appendChild(entry);
+    }
+
+    IIOMetadataNode control = child(root, "GraphicControlExtension");
+    control.setAttribute("disposalMethod", "doNotDispose");
+    control.setAttribute("userInputFlag", "FALSE");
+    control.setAttribute("transparentColorFlag", "FALSE");
+    control.setAttribute("delayTime", Integer.toString(delay));
+    control.setAttribute("transparentColorIndex", "0");
+
+    if (first) {
+      IIOMetadataNode loop = new IIOMetadataNode("ApplicationExtension");
+      loop.setAttribute("applicationID", "NETSCAPE");
+      loop.setAttribute("authenticationCode", "2.0");
+      loop.setUserObject(new byte[]{1, 0, 0});
+      child(root, "ApplicationExtensions").appendChild(loop);
+    }
+
+    meta.setFromTree(FORMAT, root);
+  }
+
+  private static IIOMetadataNode child(IIOMetadataNode parent, String name) {
+    for (int i = 0; i < parent.getLength(); i++)
+      if (parent.item(i).getNodeName().equalsIgnoreCase(name))
+        return (IIOMetadataNode)parent.item(i);
+
+    IIOMetadataNode node = new IIOMetadataNode(name);
+    parent.appendChild(node);
+    return node;
+  }
+}
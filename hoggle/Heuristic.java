@@ -0,0 +1,6 @@
+package hoggle;
+
+// Estimated cost of reaching the end of the maze from some position; lower is more promising
+public interface Heuristic {
+  int cost(int x, int y);
+}
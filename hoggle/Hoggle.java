@@ -1,95 +1,156 @@
 package hoggle;
 
-import java.awt.geom.AffineTransform;
-import java.awt.image.AffineTransformOp;
 import java.awt.Color;
-import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
 import java.util.Scanner;
-import java.util.Stack;
 import java.util.ArrayList;
-import javax.imageio.ImageIO;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 public class Hoggle {
-  protected ArrayList<Coordinate> visitedCoords = new ArrayList<Coordinate>();
-  protected ArrayList<Coordinate> roadblocks = new ArrayList<Coordinate>();
-  protected boolean[][] maze;
-  protected short[][] heuristic;
+  protected VisitedSet visitedCells;
+  protected MazeGrid maze;
+  protected Heuristic heuristic;
   protected int x, y, startX, startY, endX, endY;
 
-  private Stack<PathElement> path = new Stack<PathElement>();
+  private PathLog path = new PathLog();
   private Direction direction;
-  private BufferedImage map;
+  private int[] map;
+  private AnimationSink animation;
+  private AnimationFormat animationFormat = AnimationFormat.PNG_FRAMES;
+  private boolean collapseCorridors = false;
+  private int dirtyMinX, dirtyMinY, dirtyMaxX = -1, dirtyMaxY = -1;
+  private FrameWriter.Overflow frameOverflow = FrameWriter.Overflow.BLOCK;
+  private int frameSampling = 1;
   private int moveCount = 0;
   private File solutionDirectory;
+  private VisitedSet droneTrail;
   private String name;
+  private PrintStream out = System.out;
+  private AsciiRenderer ascii;
+  private int drawnX, drawnY;
+  private DeadEndStrategy deadEndStrategy = DeadEndStrategy.WORKLIST;
+  private int parallelism = 1;
+  private Solver solver;
+  private long expansions = 0, loadNanos = 0;
+  private SolveStats stats;
+  private boolean statsRequested = false;
+  private boolean optimized = false;
+  private Thread solvingThread;
+  private volatile boolean cancelled;
   private boolean ASCII_ANIM, PNG_ANIM, PNG_SOLUTION, STEP_BY_STEP, TELEMETRY;
+  private boolean watched;
   private final Color WALL_COLOR = Color.WHITE, PATH_COLOR = Color.BLUE, SPACE_COLOR = Color.LIGHT_GRAY, END_COLOR = Color.GREEN;
+  private final int SPACE_RGB = SPACE_COLOR.getRGB(), PATH_RGB = PATH_COLOR.getRGB();
   private final int DELAY = 0, MAP_SCALE = 6;
 
-  private enum Mode { PNG, ASCII, CUSTOM }
-  private Mode runMode = Mode.PNG;
+  // Give Hoggle a starting position, an ending position, and a maze. Roadblocks are placed in the maze grid itself
+  public Hoggle(boolean[][] maze, Coordinate startPosition, Coordinate endPosition) { this(new BitMazeGrid(maze), startPosition, endPosition); }
 
-  // Give Hoggle a starting position, an ending position, and a maze
-  public Hoggle(boolean[][] maze, Coordinate startPosition, Coordinate endPosition) {
+  public Hoggle(MazeGrid maze, Coordinate startPosition, Coordinate endPosition) {
     // Assert argument validity
-    for (boolean[] row : maze)
-      assert (row.length == maze[0].length);
-    assert (startPosition.getX() >= 0 && startPosition.getX() < maze[0].length);
-    assert (endPosition.getY() >= 0 && endPosition.getY() < maze.length);
+    assert (startPosition.getX() >= 0 && startPosition.getX() < maze.getWidth());
+    assert (endPosition.getY() >= 0 && endPosition.getY() < maze.getHeight());
 
     // State population
     this.maze = maze;
-    this.heuristic = new short[maze.length][maze[0].length];
+    this.visitedCells = maze.newVisitedSet();
     this.x = this.startX = startPosition.getX();
     this.y = this.startY = startPosition.getY();
     this.endX = endPosition.getX();
     this.endY = endPosition.getY();
-
-    // Run mode specifications
-    if (runMode == Mode.PNG) {
-      ASCII_ANIM = false;
-      PNG_ANIM = true;
-      PNG_SOLUTION = true;
-      STEP_BY_STEP = false;
-      TELEMETRY = true;
-    } else if (runMode == Mode.ASCII) {
-      ASCII_ANIM = true;
-      PNG_ANIM = false;
-      PNG_SOLUTION = true;
-      STEP_BY_STEP = false;
-      TELEMETRY = false;
-    } else {
-      ASCII_ANIM = true;
-      PNG_ANIM = false;
-      PNG_SOLUTION = true;
-      STEP_BY_STEP = true;
-      TELEMETRY = false;
-    }
+    this.heuristic = new DistanceHeuristic(endX, endY);
   }
 
-  protected Hoggle(boolean[][] maze) { this.maze = maze; }
+  protected Hoggle(MazeGrid maze) { this.maze = maze; }
 
   /* * * SOLVING ALGORITHM * * */
 
-  // Prompt Hoggle to solve the maze and return the path taken
-  public final ArrayList<Direction> solve() {
+  // Prompt Hoggle to solve the maze and return the path taken, or null if the end is unreachable
+  public final Path solve() {
+    solvingThread = Thread.currentThread();
     prepareGraphics();
     optimize();
 
+    Path finalPath;
+    long started = System.nanoTime();
+
+    // Whether each step is observed is settled once, so that a headless solve's loop checks nothing else per step
+    watched = ASCII_ANIM || animation != null || stats != null;
+
+    try {
+      finalPath = solver == null ? explore() : solver.solve(maze, startX, startY, endX, endY);
+    } finally {
+      if (stats != null) {
+        stats.solveNanos = System.nanoTime() - started;
+        stats.expansions = getExpansions();
+      }
+
+      // Even an interrupted solve waits for its animation, so no writer threads are left behind
+      if (animation != null) {
+        boolean interrupted = Thread.interrupted();
+        finishAnimation();
+        if (interrupted)
+          Thread.currentThread().interrupt();
+      }
+    }
+
+    if (PNG_SOLUTION && finalPath != null)
+      saveSolutionPng(finalPath);
+
+    if (stats != null) {
+      stats.loadNanos = loadNanos;
+      stats.pathLength = finalPath == null ? -1 : finalPath.size();
+
+      if (TELEMETRY && out != null)
+        out.print("\n" + stats);
+    }
+
+    return finalPath;
+  }
+
+  // Walk the maze by heuristic-guided depth-first search, animating each step, and return the path to the end, or null if
+  // every branch was exhausted without reaching it
+  private Path explore() {
     direction = Direction.UP;
-    path.push((PathElement)makeJunction());
 
-    boolean success = false;
+    // Dead-end filling can leave the start with one way out; head that way rather than into a wall
+    if (wallCount(x, y) == 3)
+      for (Direction d : Direction.values())
+        if (!collision(d))
+          direction = d;
+
+    path.pushJunction(makeJunction());
 
-    telemln("Solving maze...");
+    boolean success = false;
 
     while (!success) {
-      animate();
+      checkInterrupted();
+
+      if (watched)
+        animate();
 
       if (!move(true)) {
-        backtrack();
+        // A branch into a wall (the start's way back) leaves me on its junction; face back so backtracking crosses it off
+        if (path.atJunction())
+          direction = oppositeDirection(direction);
+        if (!backtrack())
+          return null;
+        continue;
+      }
+
+      // A step from the start or a junction can land right on the end
+      if (x == endX && y == endY) {
+        success = true;
         continue;
       }
 
@@ -98,7 +159,8 @@ public class Hoggle {
         direction = dxdyDirection(endX-x, endY-y);
         while (!(x == endX && y == endY)) {
           move(true);
-          animate();
+          if (watched)
+            animate();
         }
         success = true;
         continue;
@@ -107,133 +169,208 @@ public class Hoggle {
       // That step brought me to either a fork or a turn
       if (wallCount(x, y) < 2 || (wallCount(x, y) == 2 && collision(direction))) {
         // This is a fork, albeit one I've seen before
-        if (path.peek() instanceof Junction) {
-          Junction j = (Junction)path.peek();
+        if (path.atJunction()) {
+          int j = path.peekJunction();
 
-          // If this fork still has unexplored branches, use pre-calculated heuristics to choose the cheapest one to explore
-          if (j.getUnexploredCount() > 0) {
+          // If this fork still has unexplored branches, use heuristics to choose the cheapest one to explore
+          if (Junction.getUnexploredCount(j) > 0) {
             direction = cheapestJunctionPath(j);
             continue;
           } else {
-            path.pop();
-            backtrack();
+            path.popJunction();
+            if (!backtrack())
+              return null;
           }
 
           continue;
         // This is not a fork I've seen before; document it in my path
         } else {
-          Junction j = makeJunction();
-          path.push(j);
+          int j = makeJunction();
+          path.pushJunction(j);
 
           // If this fork still has unexplored branches, choose one to explore
-          if (j.getUnexploredCount() > 0) {
+          if (Junction.getUnexploredCount(j) > 0) {
             direction = cheapestJunctionPath(j);
             continue;
-          } else backtrack();
+          } else if (!backtrack())
+            return null;
         }
       // This is a dead-end; retrace my steps
-      } else if (wallCount(x, y) == 3) backtrack();
+      } else if (wallCount(x, y) == 3 && !backtrack())
+        return null;
     }
 
-    // The last loop broke -- the end has been reached. Construct the final path
-    telemln("Maze solved.");
+    // The last loop broke -- the end has been reached. The moves logged, in order, are the final path
+    return path.toPath();
+  }
 
-    ArrayList<Direction> finalPath = new ArrayList<Direction>();
-    ArrayList<Coordinate> coordinates = new ArrayList<Coordinate>();
-    BufferedImage img = new BufferedImage(maze[0].length, maze.length, BufferedImage.TYPE_INT_RGB);
-    int simX = endX, simY = endY, moveCount = path.size();
-    double moves = 0;
+  // Draw the path from start to end over the maze and stream it out as the solution image
+  private void saveSolutionPng(Path finalPath) {
+    long started = System.nanoTime();
 
-    while (!path.isEmpty()) {
-      PathElement p = path.pop();
+    try (OutputStream out = new BufferedOutputStream(new FileOutputStream(new File(solutionDirectory, "solution.png")))) {
+      new SolutionRenderer(maze, startX, startY, finalPath, MAP_SCALE).writePng(out);
+    } catch (IOException e) {
+      warn("Failed to create solution image");
+    }
 
-      if (p instanceof Movement) {
-        if (PNG_SOLUTION) {
-          int red = (int)((moves/moveCount)*255);
-          Color col = new Color(255-red, 0, red);
-          img.setRGB(simX, simY, col.getRGB());
-          coordinates.add(new Coordinate(simX, simY));
-        }
+    if (stats != null)
+      stats.renderNanos = System.nanoTime() - started;
+  }
 
-        Movement m = (Movement)p;
+  // Pathfinding optimization via elimination of dead-end branches; A*-esque node cost heuristics are left to the heuristic
+  // provider, which by default computes them only for the junction branches actually weighed. solve() runs this itself,
+  // but it may be run ahead of time; either way it only happens once
+  public final void optimize() {
+    if (optimized)
+      return;
+    optimized = true;
+    solvingThread = Thread.currentThread();
+
+    long started = System.nanoTime();
+    long filled;
+
+    // A tiled grid's roadblocks are scratch space shared by every solve of the open file, so one solve's never reach the next
+    if (maze instanceof TiledMazeGrid)
+      ((TiledMazeGrid)maze).clearRoadblocks();
+
+    if (deadEndStrategy == DeadEndStrategy.WORKLIST && parallelism > 1 && maze.allowsConcurrentRows() && maze.getWidth() >= 64 && maze.getHeight() >= 6)
+      filled = optimizeParallel();
+    else if (deadEndStrategy == DeadEndStrategy.WORKLIST)
+      filled = fillDeadEnds(0, maze.getHeight(), 0, maze.getHeight());
+    else
+      filled = deployDrones();
+
+    if (stats != null) {
+      stats.optimizeNanos = System.nanoTime() - started;
+      stats.roadblocksPlaced = filled;
+    }
+  }
 
-        switch (oppositeDirection(m.get())) {
-          case UP: simY--; break;
-          case DOWN: simY++; break;
-          case LEFT: simX--; break;
-          case RIGHT: simX++; break;
-        }
+  // Deploy a drone to every dead-end found in a raster scan of the maze and return the number of roadblocks placed
+  private int deployDrones() {
+    int placed = 0;
 
-        finalPath.add(0, ((Movement)p).get());
-        moves++;
-      }
-    }
+    if (stats != null)
+      stats.cellsScanned += (long)maze.getWidth()*maze.getHeight();
 
-    // Create solution file
-    if (PNG_SOLUTION) {
-      for (int i = 0; i < maze.length; i++)
-        for (int j = 0; j < maze[0].length; j++)
-          if (!maze[i][j])
-            img.setRGB(j, i, Color.WHITE.getRGB());
-          else if (!coordinates.contains(new Coordinate(j, i)))
-            img.setRGB(j, i, Color.LIGHT_GRAY.getRGB());
-
-      try {
-        BufferedImage scaled = new BufferedImage(img.getWidth()*MAP_SCALE, img.getHeight()*MAP_SCALE, BufferedImage.TYPE_INT_ARGB);
-        AffineTransform trans = new AffineTransform();
-        trans.scale(MAP_SCALE*1.0, MAP_SCALE*1.0);
-        AffineTransformOp scaleOp = new AffineTransformOp(trans, AffineTransformOp.TYPE_NEAREST_NEIGHBOR);
-        scaled = scaleOp.filter(img, scaled);
-        File out = new File(solutionDirectory.getAbsolutePath() + "/solution.png");
-        ImageIO.write(scaled, "png", out);
-      } catch (IOException e) {
-        telemln("(!) Failed to create solution image");
-      } catch (NullPointerException e) {
-        telemln("(!) Failed to create solution image");
+    for (int y = 0; y < maze.getHeight(); y++) {
+      checkInterrupted();
+
+      for (int x = 0; x < maze.getWidth(); x++) {
+        if (!blocked(x, y) && wallCount(x, y) == 3) {
+          // This position is a dead-end -- deploy a drone to find and block its entrance
+          if (stats != null)
+            stats.dronesDeployed++;
+
+          if (droneTrail == null)
+            droneTrail = new VisitedSet(maze.getWidth(), maze.getHeight(), true);
+
+          Drone d = new Drone(maze, new Coordinate(x, y), new Coordinate(this.x, this.y), new Coordinate(endX, endY), droneTrail);
+          Coordinate entrance = d.backtrack();
+          if (entrance != null) {
+            maze.setRoadblock(entrance.getX(), entrance.getY(), true);
+            placed++;
+          }
+        }
       }
     }
 
-    return finalPath;
+    return placed;
   }
 
-  // Pathfinding optimization via elimination of dead-end branches & A*-esque node cost heuristics
-  private void optimize() {
-    telemln("Beginning optimization phase... ");
+  // Optimize row stripes of the maze concurrently. Stripe tasks never fill their first or last rows, and rows span at least
+  // one word of the grid, so no two tasks ever read or write the same word. Dead-ends reaching across stripe boundaries are
+  // then collapsed sequentially from the boundary rows; since dead-end filling has a single fixed point, the roadblocks
+  // placed are exactly those of the sequential pass. Returns the number of cells filled
+  private int optimizeParallel() {
+    final int height = maze.getHeight();
+    int stripes = Math.min(parallelism*4, height/3);
+    int[] bounds = new int[stripes+1];
 
-    for (int y = 0; y < maze.length; y++) {
-      for (int x = 0; x < maze[0].length; x++) {
-        // Dead-end elimination
-        if (!blocked(x, y) && wallCount(x, y) == 3) {
-          // This position is a dead-end -- deploy a drone to find and block its entrance
-          telemln("Deploying drone to (" + x + ", " + y + ")... ");
+    for (int i = 0; i <= stripes; i++)
+      bounds[i] = (int)((long)height*i/stripes);
 
-          Drone d = new Drone(maze, new Coordinate(x, y), new Coordinate(this.x, this.y), new Coordinate(endX, endY), roadblocks);
-          Coordinate entrance = d.backtrack();
-          if (entrance != null)
-            roadblocks.add(entrance.clone());
+    // Stripes place roadblocks from their own threads, which only see space for them made before they were submitted
+    maze.prepareRoadblocks();
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    ArrayList<ForkJoinTask<Integer>> tasks = new ArrayList<ForkJoinTask<Integer>>();
+    int filled = 0;
 
-          telem("Done.");
-        }
+    try {
+      for (int i = 0; i < stripes; i++) {
+        final int top = bounds[i], bottom = bounds[i+1];
 
-        // Cost heuristic calculations
-        telemln("Calculating node (" + x + ", " + y + ") heuristic... ");
+        tasks.add(pool.submit(() -> fillDeadEnds(top+1, bottom-1, top+1, bottom-1)));
+      }
+
+      // Joining would hide an interrupt from the stripes until they finish, so wait interruptibly and stop them instead
+      for (ForkJoinTask<Integer> t : tasks)
+        filled += t.get();
+    } catch (InterruptedException e) {
+      cancelled = true;
+      Thread.currentThread().interrupt();
+      throw new CancellationException("Solve interrupted");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException)
+        throw (RuntimeException)e.getCause();
+      if (e.getCause() instanceof Error)
+        throw (Error)e.getCause();
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      pool.shutdown();
+    }
 
-        short manhattan = (short)(Math.abs(endX-x) + Math.abs(endY-y));
-        short absDist = (short)(Math.sqrt(Math.pow(endX-x, 2) + Math.pow(endY-y, 2)));
-        heuristic[y][x] = (short)(manhattan+absDist);
+    for (int i = 0; i < stripes; i++) {
+      filled += fillDeadEnds(bounds[i], bounds[i]+1, 0, height);
+      filled += fillDeadEnds(bounds[i+1]-1, bounds[i+1], 0, height);
+    }
 
-        telem("Done.");
+    return filled;
+  }
+
+  // Roadblock every dead-end cell found while scanning some rows, following each collapsing corridor as long as it stays
+  // within some other rows. Filling a dead-end can only turn its one open neighbor into a new dead-end, so the worklist
+  // never holds more than that neighbor. Cells with no open neighbors are filled as well, which makes the result
+  // independent of scan order. Returns the number of cells filled
+  private int fillDeadEnds(int scanTop, int scanBottom, int minRow, int maxRow) {
+    int filled = 0;
+
+    // Counted per call rather than per cell; stripes run concurrently, so this is synchronized
+    if (stats != null && scanBottom > scanTop)
+      countScanned((long)(scanBottom - scanTop)*maze.getWidth());
+
+    for (int y = scanTop; y < scanBottom; y++) {
+      checkInterrupted();
+
+      for (int x = 0; x < maze.getWidth(); x++) {
+        int cx = x, cy = y;
+
+        // The maze's start and end are never filled, the same as a drone refusing to roadblock them
+        while (cy >= minRow && cy < maxRow && !blocked(cx, cy) && wallCount(cx, cy) >= 3
+            && !(cx == startX && cy == startY) && !(cx == endX && cy == endY)) {
+          maze.setRoadblock(cx, cy, true);
+
+          // A collapsing corridor can run through much of the maze, so it is checked along the way as well
+          if ((++filled & 4095) == 0)
+            checkInterrupted();
+
+          // Re-examine the neighbor this dead-end opened onto
+          if (!blocked(cx, cy-1)) cy--;
+          else if (!blocked(cx, cy+1)) cy++;
+          else if (!blocked(cx-1, cy)) cx--;
+          else cx++;
+        }
       }
     }
 
-    telemln("Optimization finished.");
+    return filled;
   }
 
   // Handle the initialization of solution directories and bitmaps if such was specified
   private void prepareGraphics() {
     // Create solution directory
     if (PNG_ANIM || PNG_SOLUTION) {
-      telemln("Creating solution directory... ");
 
       solutionDirectory = new File((name == null ? this.hashCode() : name) + "-solution");
 
@@ -241,30 +378,39 @@ public class Hoggle {
         try {
           solutionDirectory.mkdir();
         } catch (SecurityException e) {
-          System.out.println("(!) A security exception occurred");
+          if (out != null)
+            out.println("(!) A security exception occurred");
           return;
         }
       }
-
-      telem("Done.");
     }
 
     // Create scratch bitmap for animated solving
     if (PNG_ANIM) {
-      telemln("Preparing bitmap... ");
 
-      map = new BufferedImage(maze[0].length, maze.length, BufferedImage.TYPE_INT_RGB);
+      map = new int[maze.getWidth()*maze.getHeight()];
+
+      if (animationFormat == AnimationFormat.GIF) {
+        try {
+          int[] palette = {WALL_COLOR.getRGB(), SPACE_RGB, PATH_RGB, END_COLOR.getRGB()};
+          animation = new GifAnimationSink(new File(solutionDirectory, "animation.gif"), maze.getWidth(), MAP_SCALE, palette, 2);
+        } catch (IOException e) {
+          warn("Failed to create animation.gif");
+        }
+      } else {
+        int threads = Math.min(4, Runtime.getRuntime().availableProcessors());
+        animation = new FrameWriter(solutionDirectory, maze.getWidth(), maze.getHeight(), MAP_SCALE, threads, threads*2, frameOverflow, frameSampling);
+      }
 
-      for (int i = 0; i < maze.length; i++)
-        for (int j = 0; j < maze[0].length; j++)
-          if (!maze[i][j])
-            map.setRGB(j, i, WALL_COLOR.getRGB());
-          else
-            map.setRGB(j, i, SPACE_COLOR.getRGB());
+      for (int i = 0; i < maze.getHeight(); i++)
+        for (int j = 0; j < maze.getWidth(); j++)
+          map[i*maze.getWidth() + j] = (maze.isOpen(j, i) ? SPACE_COLOR : WALL_COLOR).getRGB();
 
-      map.setRGB(x, y, PATH_COLOR.getRGB());
-      map.setRGB(endX, endY, END_COLOR.getRGB());
-      saveMapPng();
+      map[y*maze.getWidth() + x] = PATH_COLOR.getRGB();
+      map[endY*maze.getWidth() + endX] = END_COLOR.getRGB();
+      markDirty(0, 0);
+      markDirty(maze.getWidth()-1, maze.getHeight()-1);
+      saveMapPng(true);
     }
   }
 
@@ -305,7 +451,7 @@ public class Hoggle {
   }
 
   // Return whether or not a coordinate is within the maze's bounds
-  protected final boolean inBounds(int x, int y) { return (x >= 0 && x < maze[0].length && y >= 0 && y < maze.length); }
+  protected final boolean inBounds(int x, int y) { return (x >= 0 && x < maze.getWidth() && y >= 0 && y < maze.getHeight()); }
 
   // Get the direction associated with some dx sign and dy sign -- does NOT support diagonal motion
   protected final Direction dxdyDirection(int dx, int dy) {
@@ -332,12 +478,7 @@ public class Hoggle {
   }
 
   // Return whether or not I've visited some coordinate
-  protected final boolean visited(int x, int y) {
-    for (Coordinate c : visitedCoords)
-      if (c.getX() == x && c.getY() == y)
-        return true;
-    return false;
-  }
+  protected final boolean visited(int x, int y) { return visitedCells.contains(x, y); }
 
   // Get the direction opposite some other direction
   protected final Direction oppositeDirection(Direction dir) {
@@ -366,72 +507,102 @@ public class Hoggle {
       }
     }
 
-    if (visited(x, y) && addToPath) pioneer = false;
-    if (pioneer) visitedCoords.add(new Coordinate(x, y));
-    if (addToPath && !(oldX == x && oldY == y)) path.push(new Movement(direction));
+    if (addToPath && visited(x, y)) pioneer = false;
+    if (pioneer && visitedCells.add(x, y)) expansions++;
+    if (addToPath && !(oldX == x && oldY == y)) path.push(direction);
 
-    if (PNG_ANIM) {
-      moveCount++;
-      map.setRGB(oldX, oldY, SPACE_COLOR.getRGB());
-      map.setRGB(x, y, PATH_COLOR.getRGB());
-      saveMapPng();
-    }
+    if (watched)
+      observe(oldX, oldY);
 
     return pioneer;
   }
 
-  // Pull movements off the path stack until the previous junction is reached
-  private void backtrack() {
-    while (path.peek() instanceof Movement) {
-      direction = oppositeDirection(((Movement)path.pop()).get());
-      move(false);
+  // Count a step from some position to the current one and draw it into the png animation
+  private void observe(int oldX, int oldY) {
+    if (stats != null)
+      stats.steps++;
+
+    if (PNG_ANIM && animation != null) {
+      moveCount++;
+      map[oldY*maze.getWidth() + oldX] = SPACE_RGB;
+      map[y*maze.getWidth() + x] = PATH_RGB;
+      markDirty(oldX, oldY);
+      markDirty(x, y);
+      saveMapPng(false);
     }
+  }
+
+  // Pull movements off the path stack until a junction with unexplored branches is reached, dropping every exhausted
+  // junction passed on the way. This is a loop rather than recursion so that however long a chain of exhausted junctions
+  // gets, it costs no call stack. Returns false, back at the start, if no junction has a branch left, which means the end
+  // can't be reached
+  private boolean backtrack() {
+    while (true) {
+      checkInterrupted();
+
+      if (stats != null)
+        stats.backtracks++;
+
+      while (!path.atJunction()) {
+        if (path.isEmpty())
+          return false;
+        direction = oppositeDirection(path.pop());
+        move(false);
+      }
+
+      // Arriving at the old junction, determine if it has unexplored branches, or if it doesn't and I need to backtrack again
+      int j = Junction.remove(path.peekJunction(), oppositeDirection(direction));
+      path.setJunction(j);
 
-    // Arriving at the old junction, determine if it has unexplored branches, or if it doesn't and I need to backtrack again
-    Junction j = (Junction)path.peek();
-    j.remove(oppositeDirection(direction));
+      if (Junction.getUnexploredCount(j) > 0) {
+        direction = Junction.getUnexplored(j)[0];
+        return true;
+      }
 
-    if (j.getUnexploredCount() > 0)
-      direction = j.getUnexplored(0);
-    else {
-      path.pop();
-      backtrack();
+      path.popJunction();
     }
   }
 
-  // Return a junction object containing branch data from the current coordintes
-  private Junction makeJunction() {
-    ArrayList<Direction> branches = new ArrayList<Direction>();
+  // Return a junction holding branch data from the current coordinates
+  private int makeJunction() {
+    if (stats != null)
+      stats.junctionsCreated++;
+
+    Direction back = oppositeDirection(direction);
+    int branches = 0;
 
     for (int dx = -1; dx <= 1; dx++)
       for (int dy = -1; dy <= 1; dy++)
-        if ((dx == 0 ^ dy == 0) && inBounds(x+dx, y+dy) && oppositeDirection(direction) != dxdyDirection(dx, dy) && !blocked(x+dx, y+dy))
-          branches.add(dxdyDirection(dx, dy));
+        if ((dx == 0 ^ dy == 0) && inBounds(x+dx, y+dy) && back != dxdyDirection(dx, dy) && !blocked(x+dx, y+dy))
+          branches |= 1 << dxdyDirection(dx, dy).ordinal();
 
-    if (branches.size() == 1) branches.add(oppositeDirection(direction));
+    if (Integer.bitCount(branches) == 1) branches |= 1 << back.ordinal();
 
-    return new Junction(branches);
+    return Junction.of(branches, back);
   }
 
   // Returns whether or not some coordinate is a roadblock
-  private boolean isRoadblock(int x, int y) {
-    for (Coordinate c : roadblocks)
-      if (c.getX() == x && c.getY() == y)
-        return true;
+  private boolean isRoadblock(int x, int y) { return maze.isRoadblock(x, y); }
 
-    return false;
-  }
-
-  // Use the pre-calculated heuristics to calculate the cheapest path of a junction
-  private Direction cheapestJunctionPath(Junction j) {
-    Direction[] options = j.getAllUnexplored();
-    Direction recordHolder = j.getUnexplored(0);
-    short record = Short.MAX_VALUE;
+  // Use the heuristic provider to calculate the cheapest path of a junction. Each branch's cell is offset inline, so
+  // weighing the branches allocates nothing
+  private Direction cheapestJunctionPath(int j) {
+    Direction[] options = Junction.getUnexplored(j);
+    Direction recordHolder = options[0];
+    int record = Integer.MAX_VALUE;
 
     for (Direction d : options) {
-      Coordinate c = dirCoordinate(d);
-      if (heuristic[c.getY()][c.getX()] < record) {
-        record = heuristic[c.getY()][c.getX()];
+      int bx = x, by = y;
+      switch (d) {
+        case UP: by -= 1; break;
+        case DOWN: by += 1; break;
+        case LEFT: bx -= 1; break;
+        case RIGHT: bx += 1; break;
+      }
+
+      int cost = heuristic.cost(bx, by);
+      if (cost < record) {
+        record = cost;
         recordHolder = d;
       }
     }
@@ -439,79 +610,195 @@ public class Hoggle {
     return recordHolder;
   }
 
-  // Print the maze, add a gutter, and delay; used to animate the solving process
+  // Draw the maze and delay; used to animate the solving process
   private void animate() {
-    if (!ASCII_ANIM)
+    if (!ASCII_ANIM || out == null)
       return;
 
-    print();
-    System.out.print("\n");
+    draw();
 
     if (STEP_BY_STEP) {
       Scanner pause = new Scanner(System.in);
       pause.nextLine();
     } else
-      try { Thread.sleep(DELAY); } catch (InterruptedException e) { e.printStackTrace(); }
+      try { Thread.sleep(DELAY); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
   }
 
   // Return whether or not some position is a wall or a roadblock
-  protected boolean blocked(int x, int y) { return (!inBounds(x, y) || !maze[y][x] || isRoadblock(x, y)); }
+  protected boolean blocked(int x, int y) { return (!inBounds(x, y) || maze.isBlocked(x, y)); }
 
-  // Print telemetry for debug purposes
-  private void telemln(String str) { if (TELEMETRY) System.out.print("\n" + str); }
+  // Report a problem that didn't stop the solve
+  private void warn(String str) { if (TELEMETRY && out != null) out.print("\n(!) " + str); }
 
-  private void telem(String str) { if (TELEMETRY) System.out.print(str); }
+  // Give up if the thread solving me has been interrupted, e.g. by a batch whose time for the maze ran out. Stripe tasks
+  // of the parallel optimization run on threads of their own, so they check the solving thread rather than their own
+  private void checkInterrupted() {
+    if (cancelled || (solvingThread != null && solvingThread.isInterrupted()))
+      throw new CancellationException("Solve interrupted");
+  }
 
-  // Save a picture of the current maze state if png animation was specified
-  private void saveMapPng() {
-    if (!PNG_ANIM)
+  private synchronized void countScanned(long cells) { stats.cellsScanned += cells; }
+
+  // Hand the animation a picture of the current maze state if png animation was specified. Unless forced, frames are
+  // held back while running straight down a corridor when corridors are collapsed, so that each run is drawn once
+  private void saveMapPng(boolean force) {
+    if (!PNG_ANIM || animation == null || dirtyMaxX < 0)
+      return;
+    if (!force && collapseCorridors && !collision(direction) && wallCount(x, y) == 2)
       return;
 
-    telemln("Generating bitmap for step " + moveCount + "... ");
+    animation.frame(map, moveCount, dirtyMinX, dirtyMinY, dirtyMaxX, dirtyMaxY);
+    dirtyMaxX = dirtyMaxY = -1;
+  }
 
-    try {
-      BufferedImage scaled = new BufferedImage(map.getWidth()*MAP_SCALE, map.getHeight()*MAP_SCALE, BufferedImage.TYPE_INT_ARGB);
-      AffineTransform trans = new AffineTransform();
-      trans.scale(MAP_SCALE*1.0, MAP_SCALE*1.0);
-      AffineTransformOp scaleOp = new AffineTransformOp(trans, AffineTransformOp.TYPE_NEAREST_NEIGHBOR);
-      scaled = scaleOp.filter(map, scaled);
-      File out = new File(solutionDirectory.getAbsolutePath() + "/step" + moveCount + ".png");
-      ImageIO.write(scaled, "png", out);
-    } catch (IOException e) {
-      telemln("(!) Failed to save map png");
-    } catch (NullPointerException e) {
-      telemln("(!) Failed to save map png");
+  // Grow the rectangle of cells changed since the last frame to include some position
+  private void markDirty(int x, int y) {
+    if (dirtyMaxX < 0) {
+      dirtyMinX = dirtyMaxX = x;
+      dirtyMinY = dirtyMaxY = y;
+      return;
     }
 
-    telem("Done.");
+    dirtyMinX = Math.min(dirtyMinX, x);
+    dirtyMinY = Math.min(dirtyMinY, y);
+    dirtyMaxX = Math.max(dirtyMaxX, x);
+    dirtyMaxY = Math.max(dirtyMaxY, y);
+  }
+
+  // Draw any frame still held back, wait for the animation to be written and report how that went
+  private void finishAnimation() {
+    saveMapPng(true);
+    animation.close();
+
+    if (animation instanceof FrameWriter) {
+      FrameWriter writer = (FrameWriter)animation;
+      if (writer.getDropped() > 0)
+        warn(writer.getDropped() + " animation frames dropped");
+      if (writer.getFailed() > 0)
+        warn("Failed to save " + writer.getFailed() + " map pngs");
+    } else if (((GifAnimationSink)animation).hasFailed())
+      warn("Failed to save animation.gif");
   }
 
   // Specify a name -- used to name solution files. If no name is specified, Hoggle's hash is used
   public void setName(String str) { name = str; }
 
-  // Print the maze for debug purposes
-  private void print() {
-    String str = "";
+  // Specify how dead-ends are eliminated before solving; defaults to the worklist fill
+  public void setDeadEndStrategy(DeadEndStrategy strategy) { deadEndStrategy = strategy; }
+
+  // Specify what a solve produces besides its path. By default nothing is: the solve is headless, creates no files, and
+  // its loop never touches animation, image or console code. Telemetry also turns on stats collection. Each call replaces
+  // the last: outputs left out are turned off and anything already set up for them is dropped, and stats are only kept
+  // without telemetry if setCollectStats asked for them
+  public void setOutputs(Output... outputs) {
+    EnumSet<Output> chosen = EnumSet.noneOf(Output.class);
+    Collections.addAll(chosen, outputs);
+
+    PNG_ANIM = chosen.contains(Output.PNG_ANIMATION);
+    PNG_SOLUTION = chosen.contains(Output.PNG_SOLUTION);
+    ASCII_ANIM = chosen.contains(Output.ASCII_ANIMATION);
+    STEP_BY_STEP = chosen.contains(Output.STEP_BY_STEP);
+    TELEMETRY = chosen.contains(Output.TELEMETRY);
+
+    animation = null;
+    map = null;
+    dirtyMaxX = dirtyMaxY = -1;
+    ascii = null;
+    solutionDirectory = null;
+
+    if (TELEMETRY || statsRequested) {
+      if (stats == null)
+        stats = new SolveStats();
+    } else
+      stats = null;
+  }
 
-    for (int y = 0; y < maze.length; y++) {
-      for (int x = 0; x < maze[0].length; x++) {
-        char c = ' ';
+  // Specify where telemetry and ASCII animation are printed; each Hoggle has its own output so that many can run at once.
+  // Defaults to System.out, and null silences both
+  public void setOutput(PrintStream stream) { out = stream; }
 
-        if (!maze[y][x])
-          c = 'X';
-        else if (x == this.x && y == this.y)
-          c = 'H';
-        else if (x == endX && y == endY)
-          c = 'E';
-        else if (isRoadblock(x, y))
-          c = 'R';
+  // Specify a solver to delegate to after optimization; by default Hoggle explores the maze itself
+  public void setSolver(Solver s) { solver = s; }
 
-        str += c;
-      }
+  // Return the number of cells expanded while solving. Hoggle's own exploration counts each cell the first time it steps
+  // into it, so that retraced steps aren't counted, as no solver counts a cell it expands twice
+  public long getExpansions() { return solver == null ? expansions : solver.getExpansions(); }
+
+  // Specify whether or not SolveStats are gathered; they are by default when telemetry is printed
+  public void setCollectStats(boolean collect) {
+    statsRequested = collect;
+
+    if (!collect)
+      stats = null;
+    else if (stats == null)
+      stats = new SolveStats();
+  }
+
+  // Return the stats gathered so far, or null if they aren't being collected
+  public SolveStats getStats() { return stats; }
+
+  // Record how long the maze took to load, for the stats
+  void setLoadNanos(long nanos) { loadNanos = nanos; }
+
+  // Specify what png animation does when frames are produced faster than they can be written; sampleEvery is the
+  // interval of frames still waited for under the SAMPLE policy
+  public void setFrameOverflow(FrameWriter.Overflow policy, int sampleEvery) {
+    assert (sampleEvery >= 1);
+    frameOverflow = policy;
+    frameSampling = sampleEvery;
+  }
 
-      str += "\n";
+  // Specify how png animation is saved, and whether or not straight corridor runs are collapsed into a single frame
+  public void setAnimationFormat(AnimationFormat format, boolean collapseCorridors) {
+    animationFormat = format;
+    this.collapseCorridors = collapseCorridors;
+  }
+
+  // Specify how the cost of a position is estimated; defaults to a DistanceHeuristic toward the end, computed on demand
+  public void setHeuristic(Heuristic h) { heuristic = h; }
+
+  // Specify how many threads the optimization phase may use; the parallel phase requires the worklist dead-end strategy
+  // and a grid allowing concurrent access to its rows, and otherwise the optimization runs on the solving thread
+  public void setParallelism(int threads) {
+    assert (threads >= 1);
+    parallelism = threads;
+  }
+
+  // Draw the maze on the terminal. After the first frame only changed cells are redrawn, which while solving are just
+  // where I was last drawn and where I am now
+  private void draw() {
+    if (ascii == null) {
+      ascii = new AsciiRenderer(out, maze.getWidth(), maze.getHeight());
+
+      for (int cy = 0; cy < maze.getHeight(); cy++)
+        for (int cx = 0; cx < maze.getWidth(); cx++)
+          ascii.set(cx, cy, cellChar(cx, cy));
+    } else {
+      ascii.set(drawnX, drawnY, cellChar(drawnX, drawnY));
+      ascii.set(x, y, cellChar(x, y));
     }
 
-    System.out.print(str);
+    drawnX = x;
+    drawnY = y;
+
+    try {
+      ascii.draw();
+    } catch (IOException e) {
+      warn("Failed to draw the maze; animation stopped");
+      ASCII_ANIM = false;
+    }
+  }
+
+  // Return the character showing some cell: a wall, me, the end, a roadblock, or open space
+  private char cellChar(int x, int y) {
+    if (!maze.isOpen(x, y))
+      return 'X';
+    else if (x == this.x && y == this.y)
+      return 'H';
+    else if (x == endX && y == endY)
+      return 'E';
+    else if (isRoadblock(x, y))
+      return 'R';
+    return ' ';
   }
 }
@@ -0,0 +1,172 @@
+package hoggle;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Solves many independent mazes concurrently. Each maze gets its own Hoggle, silenced unless configured otherwise, and at
+// most a fixed number are loaded or solving at once so that memory stays bounded however many are submitted. Any executor
+// will do; on runtimes that have them, a virtual-thread-per-task executor is a good fit
+public class HoggleBatch implements AutoCloseable {
+  private final ExecutorService executor;
+  private final boolean ownsExecutor;
+  private final int maxInFlight;
+  private final Semaphore permits;
+  private final ScheduledExecutorService alarms;
+  private long timeoutNanos = 0;
+  private Consumer<Hoggle> configurator = h -> {};
+
+  // Solve on a fixed pool of some number of threads, which is shut down when the batch is closed
+  public HoggleBatch(int threads, int maxInFlight) { this(Executors.newFixedThreadPool(threads), maxInFlight, true); }
+
+  // Solve on some executor, which remains the caller's to shut down
+  public HoggleBatch(ExecutorService executor, int maxInFlight) { this(executor, maxInFlight, false); }
+
+  private HoggleBatch(ExecutorService executor, int maxInFlight, boolean ownsExecutor) {
+    assert (maxInFlight >= 1);
+
+    this.executor = executor;
+    this.ownsExecutor = ownsExecutor;
+    this.maxInFlight = maxInFlight;
+    this.permits = new Semaphore(maxInFlight);
+    this.alarms = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "hoggle-batch-timeouts");
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  // Specify how long a maze may spend loading and solving before it is interrupted; zero means no limit
+  public void setTimeout(long timeout, TimeUnit unit) { timeoutNanos = unit.toNanos(timeout); }
+
+  // Specify a step applied to every Hoggle before it solves, e.g. to pick its solver
+  public void setConfigurator(Consumer<Hoggle> c) { configurator = c; }
+
+  // Queue a maze for solving, first waiting while the maximum number of mazes are already in flight. The future completes
+  // normally, errors such as assertion failures and stack overflows included, with failures and timeouts reported in the
+  // result; only if even the result can't be made, e.g. with the heap exhausted, does it complete exceptionally
+  public CompletableFuture<BatchResult> submit(MazeSource source) throws InterruptedException {
+    permits.acquire();
+
+    CompletableFuture<BatchResult> result = new CompletableFuture<BatchResult>();
+
+    try {
+      executor.execute(() -> {
+        try {
+          result.complete(solve(source));
+        } catch (Throwable t) {
+          result.completeExceptionally(t);
+        } finally {
+          permits.release();
+        }
+      });
+    } catch (RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+
+    return result;
+  }
+
+  // Solve every maze of a stream, returning their results lazily and in the same order. Mazes are submitted only as results
+  // are consumed, keeping at most the in-flight maximum running ahead of the consumer
+  public Stream<BatchResult> solveAll(Stream<MazeSource> sources) {
+    Iterator<MazeSource> pending = sources.iterator();
+
+    Iterator<BatchResult> results = new Iterator<BatchResult>() {
+      private final ArrayDeque<CompletableFuture<BatchResult>> running = new ArrayDeque<CompletableFuture<BatchResult>>();
+
+      @Override
+      public boolean hasNext() {
+        fill();
+        return !running.isEmpty();
+      }
+
+      @Override
+      public BatchResult next() {
+        if (!hasNext())
+          throw new NoSuchElementException();
+        return running.poll().join();
+      }
+
+      private void fill() {
+        try {
+          while (running.size() < maxInFlight && pending.hasNext())
+            running.add(submit(pending.next()));
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new CancellationException("Interrupted while submitting mazes");
+        }
+      }
+    };
+
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(results, Spliterator.ORDERED | Spliterator.NONNULL), false);
+  }
+
+  @Override
+  public void close() {
+    alarms.shutdownNow();
+    if (ownsExecutor)
+      executor.shutdown();
+  }
+
+  // Load and solve one maze on the current thread, arming an alarm that interrupts it if it runs too long
+  private BatchResult solve(MazeSource source) {
+    final Thread worker = Thread.currentThread();
+    final Object lock = new Object();
+    final boolean[] finished = {false};
+    long start = System.nanoTime();
+    ScheduledFuture<?> alarm = null;
+    Hoggle hoggle = null;
+
+    if (timeoutNanos > 0)
+      alarm = alarms.schedule(() -> {
+        synchronized (lock) {
+          if (!finished[0])
+            worker.interrupt();
+        }
+      }, timeoutNanos, TimeUnit.NANOSECONDS);
+
+    try {
+      hoggle = source.load().createSolver();
+      hoggle.setName(source.getName());
+      hoggle.setOutput(null);
+      configurator.accept(hoggle);
+
+      Path path = hoggle.solve();
+      return new BatchResult(source.getName(), path, null, hoggle.getExpansions(), System.nanoTime()-start, false, hoggle.getStats());
+    } catch (CancellationException e) {
+      return new BatchResult(source.getName(), null, e, expansions(hoggle), System.nanoTime()-start, true, stats(hoggle));
+    } catch (Throwable e) {
+      boolean timedOut = worker.isInterrupted();
+      return new BatchResult(source.getName(), null, e, expansions(hoggle), System.nanoTime()-start, timedOut, stats(hoggle));
+    } finally {
+      synchronized (lock) {
+        finished[0] = true;
+      }
+
+      if (alarm != null)
+        alarm.cancel(false);
+
+      // Don't let a late alarm leak into the next maze this thread solves
+      Thread.interrupted();
+    }
+  }
+
+  private static long expansions(Hoggle h) { return h == null ? 0 : h.getExpansions(); }
+
+  private static SolveStats stats(Hoggle h) { return h == null ? null : h.getStats(); }
+}
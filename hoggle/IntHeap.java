@@ -0,0 +1,67 @@
+package hoggle;
+
+import java.util.Arrays;
+
+// A binary min-heap of int values ordered by long keys, kept in parallel primitive arrays
+public class IntHeap {
+  private int[] values = new int[64];
+  private long[] keys = new long[64];
+  private int size = 0;
+
+  public void push(int value, long key) {
+    if (size == values.length) {
+      values = Arrays.copyOf(values, size*2);
+      keys = Arrays.copyOf(keys, size*2);
+    }
+
+    // Sift up
+    int i = size++;
+    while (i > 0) {
+      int parent = (i-1) >>> 1;
+      if (keys[parent] <= key)
+        break;
+      values[i] = values[parent];
+      keys[i] = keys[parent];
+      i = parent;
+    }
+
+    values[i] = value;
+    keys[i] = key;
+  }
+
+  // Remove and return the value with the smallest key
+  public int pop() {
+    assert (size > 0);
+
+    int top = values[0];
+    int value = values[--size];
+    long key = keys[size];
+
+    // Sift down
+    int i = 0;
+    while (true) {
+      int child = 2*i + 1;
+      if (child >= size)
+        break;
+      if (child+1 < size && keys[child+1] < keys[child])
+        child++;
+      if (key <= keys[child])
+        break;
+      values[i] = values[child];
+      keys[i] = keys[child];
+      i = child;
+    }
+
+    values[i] = value;
+    keys[i] = key;
+    return top;
+  }
+
+  public long peekKey() { return keys[0]; }
+
+  public boolean isEmpty() { return size == 0; }
+
+  public int size() { return size; }
+
+  public void clear() { size = 0; }
+}
@@ -0,0 +1,127 @@
+package hoggle;
+
+
+// Jump Point Search for 4-connected grids. Horizontal runs only stop where a wall ending beside them opens a vertical
+// branch no other canonical path could reach; vertical runs stop wherever a horizontal run from them would stop. Only
+// those jump points enter the open set, so symmetric paths through open rooms are never expanded one cell at a time
+public class JumpPointSolver implements Solver {
+  private static final int[] DX = {0, 0, -1, 1}, DY = {-1, 1, 0, 0};
+  private static final int UP = 0, DOWN = 1, LEFT = 2, RIGHT = 3;
+
+  private MazeGrid maze;
+  private int width, height, endX, endY;
+  private long expansions = 0;
+
+  @Override
+  public Path solve(MazeGrid maze, int startX, int startY, int endX, int endY) {
+    this.maze = maze;
+    this.width = maze.getWidth();
+    this.height = maze.getHeight();
+    this.endX = endX;
+    this.endY = endY;
+    assert ((long)width*height <= Integer.MAX_VALUE);
+
+    int start = startY*width + startX, end = endY*width + endX;
+    int[] g = new int[width*height];
+    int[] parent = new int[width*height];
+    byte[] arrival = new byte[width*height]; // Ordinal+1 of the direction a jump point was reached in; zero while unreached
+    VisitedSet closed = new VisitedSet(width, height, false);
+    IntHeap open = new IntHeap();
+
+    expansions = 0;
+    parent[start] = start;
+    open.push(start, key(0, Math.abs(endX-startX) + Math.abs(endY-startY)));
+
+    while (!open.isEmpty()) {
+      Solver.checkInterrupted();
+      int cur = open.pop(), cx = cur % width, cy = cur / width;
+
+      if (!closed.add(cx, cy))
+        continue;
+
+      expansions++;
+
+      if (cur == end)
+        return path(parent, g[end], start, end);
+
+      for (int d = 0; d < 4; d++) {
+        if (cur != start && !canonical(arrival[cur]-1, d, cx, cy))
+          continue;
+
+        int jp = jump(cx, cy, d);
+        if (jp < 0)
+          continue;
+
+        int jx = jp % width, jy = jp / width;
+        if (closed.contains(jx, jy))
+          continue;
+
+        int ng = g[cur] + Math.abs(jx-cx) + Math.abs(jy-cy);
+        if ((arrival[jp] == 0 && jp != start) || ng < g[jp]) {
+          g[jp] = ng;
+          parent[jp] = cur;
+          arrival[jp] = (byte)(d+1);
+          open.push(jp, key(ng, Math.abs(endX-jx) + Math.abs(endY-jy)));
+        }
+      }
+    }
+
+    return null;
+  }
+
+  @Override
+  public long getExpansions() { return expansions; }
+
+  // Return whether or not a jump point reached in some direction should search onward in another
+  private boolean canonical(int in, int out, int x, int y) {
+    if (out == (in ^ 1))
+      return false;
+    if (in == UP || in == DOWN || out == in)
+      return true;
+
+    // Arrived horizontally; turning is only worthwhile toward a forced neighbor
+    int bx = x - DX[in];
+    return open(x, y + DY[out]) && !open(bx, y + DY[out]);
+  }
+
+  // Run from some cell in some direction and return the index of the first jump point met, or -1 if a wall comes first
+  private int jump(int x, int y, int d) {
+    while (true) {
+      x += DX[d];
+      y += DY[d];
+
+      if (!open(x, y))
+        return -1;
+      if (x == endX && y == endY)
+        return y*width + x;
+
+      if (d == LEFT || d == RIGHT) {
+        if ((open(x, y-1) && !open(x-DX[d], y-1)) || (open(x, y+1) && !open(x-DX[d], y+1)))
+          return y*width + x;
+      } else if (jump(x, y, LEFT) >= 0 || jump(x, y, RIGHT) >= 0)
+        return y*width + x;
+    }
+  }
+
+  private boolean open(int x, int y) { return x >= 0 && x < width && y >= 0 && y < height && !maze.isBlocked(x, y); }
+
+  // Order by f = g + h, breaking ties toward the jump point nearer the end
+  private static long key(int g, int h) { return ((long)(g+h) << 32) | h; }
+
+  // Walk the jump point parents back from the end, filling in the straight runs between them
+  private Path path(int[] parent, int length, int start, int end) {
+    Path moves = new Path(length);
+    int i = length;
+
+    for (int cur = end; cur != start; cur = parent[cur]) {
+      int from = parent[cur];
+      int dx = cur % width - from % width, dy = cur / width - from / width;
+      Direction dir = dx < 0 ? Direction.LEFT : dx > 0 ? Direction.RIGHT : dy < 0 ? Direction.UP : Direction.DOWN;
+
+      for (int n = Math.abs(dx) + Math.abs(dy); n > 0; n--)
+        moves.put(--i, dir.ordinal());
+    }
+
+    return moves;
+  }
+}
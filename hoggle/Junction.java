@@ -1,27 +1,47 @@
 package hoggle;
 
-import java.util.ArrayList;
-
-public final class Junction extends PathElement {
-    private ArrayList<Direction> unexplored;
-
-    public Junction(ArrayList<Direction> branches) { unexplored = branches; }
-
-    public Direction getUnexplored(int ind) { return unexplored.get(ind); }
+import java.util.Arrays;
+
+// A junction on Hoggle's path, packed into the low six bits of an int: a 4-bit mask of its unexplored branches indexed by
+// direction ordinal, and above that the ordinal of the branch leading back the way it was reached. Branches are tried
+// left, up, down then right, except the way back, which is only ever a branch when nothing else is and is tried last
+public final class Junction {
+  private static final Direction[] ORDER = {Direction.LEFT, Direction.UP, Direction.DOWN, Direction.RIGHT};
+
+  // Unexplored branches in the order they're tried, for every junction
+  private static final Direction[][] BRANCHES = new Direction[64][];
+
+  static {
+    for (int j = 0; j < 64; j++) {
+      Direction back = Direction.values()[j >>> 4];
+      Direction[] branches = new Direction[Integer.bitCount(j & 15)];
+      int n = 0;
+
+      for (Direction d : ORDER)
+        if (d != back && (j & (1 << d.ordinal())) != 0)
+          branches[n++] = d;
+      if ((j & (1 << back.ordinal())) != 0)
+        branches[n++] = back;
+
+      BRANCHES[j] = branches;
+    }
+  }
 
-    public Direction[] getAllUnexplored() {
-      Direction[] options = new Direction[unexplored.size()];
+  private Junction() {}
 
-      for (int i = 0; i < unexplored.size(); i++)
-        options[i] = unexplored.get(i);
+  // Pack a mask of branches and the way back into a junction
+  public static int of(int branches, Direction back) {
+    assert ((branches & ~15) == 0);
+    return back.ordinal() << 4 | branches;
+  }
 
-      return options;
-    }
+  // Return the unexplored branches of a junction in the order they are tried; the array is shared and must not be changed
+  public static Direction[] getUnexplored(int j) { return BRANCHES[j]; }
 
-    public int getUnexploredCount() { return unexplored.size(); }
+  public static int getUnexploredCount(int j) { return Integer.bitCount(j & 15); }
 
-    public void remove(Direction dir) { unexplored.remove(dir); }
+  // Return a junction with one of its branches marked explored
+  public static int remove(int j, Direction dir) { return j & ~(1 << dir.ordinal()); }
 
-    @Override
-    public String toString() { return "JUNCTION" + unexplored.toString(); }
+  public static String toString(int j) { return "JUNCTION" + Arrays.toString(BRANCHES[j]); }
 }
@@ -0,0 +1,155 @@
+package hoggle;
+
+import java.util.Arrays;
+
+// A maze compressed to the cells where a choice can be made. Its nodes are the open cells that don't have exactly two
+// open neighbors, plus the start and end, and each edge is the corridor running from one node to the next: its length and
+// its moves packed two bits each. Built after roadblocks are placed, so dead-ends already filled never appear. Edges are
+// kept in compressed sparse row form, every node's outgoing edges contiguous in primitive arrays, and nodes are found by
+// binary search over their cells in row-major order, so the graph costs nothing per corridor cell beyond its moves
+public final class JunctionGraph {
+  private static final int[] DX = {0, 0, -1, 1}, DY = {-1, 1, 0, 0};
+
+  private final MazeGrid maze;
+  private final int width, start, end;
+  private int[] nodeCells = new int[64];
+  private int nodes = 0;
+
+  // Edges of node n are offsets[n] up to offsets[n+1]
+  private int[] offsets, targets = new int[64], lengths = new int[64];
+  private long[] stepOffsets = new long[64];
+  private int edges = 0;
+  private byte[] steps = new byte[256];
+  private long stepCount = 0;
+
+  public JunctionGraph(MazeGrid maze, int startX, int startY, int endX, int endY) {
+    this.maze = maze;
+    this.width = maze.getWidth();
+    assert ((long)width*maze.getHeight() <= Integer.MAX_VALUE);
+
+    int startCell = startY*width + startX, endCell = endY*width + endX;
+
+    // Nodes, found in row-major order so that they are already sorted
+    for (int y = 0; y < maze.getHeight(); y++) {
+      Solver.checkInterrupted();
+      for (int x = 0; x < width; x++)
+        if (open(x, y) && (degree(x, y) != 2 || y*width + x == startCell || y*width + x == endCell)) {
+          if (nodes == nodeCells.length)
+            nodeCells = Arrays.copyOf(nodeCells, nodes*2);
+          nodeCells[nodes++] = y*width + x;
+        }
+    }
+
+    nodeCells = Arrays.copyOf(nodeCells, nodes);
+    offsets = new int[nodes+1];
+
+    // Follow every corridor out of every node to the node at its other end
+    for (int n = 0; n < nodes; n++) {
+      Solver.checkInterrupted();
+      offsets[n] = edges;
+
+      for (int d = 0; d < 4; d++) {
+        int x = nodeCells[n] % width, y = nodeCells[n] / width;
+        if (!open(x + DX[d], y + DY[d]))
+          continue;
+
+        long first = stepCount;
+        int length = 0, dir = d, target;
+
+        while (true) {
+          x += DX[dir];
+          y += DY[dir];
+          appendStep(dir);
+          length++;
+
+          if ((target = Arrays.binarySearch(nodeCells, y*width + x)) >= 0)
+            break;
+
+          // A corridor cell has exactly one way on besides the way back
+          int back = dir ^ 1;
+          for (dir = 0; dir == back || !open(x + DX[dir], y + DY[dir]); dir++);
+        }
+
+        addEdge(target, length, first);
+      }
+    }
+
+    offsets[nodes] = edges;
+    start = Arrays.binarySearch(nodeCells, startCell);
+    end = Arrays.binarySearch(nodeCells, endCell);
+  }
+
+  public int getNodeCount() { return nodes; }
+
+  public int getEdgeCount() { return edges; }
+
+  // Return the total number of corridor moves stored across all edges
+  public long getStepCount() { return stepCount; }
+
+  public int getStartNode() { return start; }
+
+  public int getEndNode() { return end; }
+
+  // Return the node at some position, or -1 if that position isn't a node
+  public int nodeAt(int x, int y) {
+    int n = Arrays.binarySearch(nodeCells, y*width + x);
+    return n >= 0 ? n : -1;
+  }
+
+  public int getX(int node) { return nodeCells[node] % width; }
+
+  public int getY(int node) { return nodeCells[node] / width; }
+
+  // Edges leaving a node are numbered from getFirstEdge(node) up to but not including getFirstEdge(node+1)
+  public int getFirstEdge(int node) { return offsets[node]; }
+
+  public int getTarget(int edge) { return targets[edge]; }
+
+  public int getLength(int edge) { return lengths[edge]; }
+
+  // Return the ordinal of one move along an edge
+  public int getStep(int edge, int i) {
+    assert (i >= 0 && i < lengths[edge]);
+
+    long s = stepOffsets[edge] + i;
+    return (steps[(int)(s >>> 2)] >>> ((s & 3) << 1)) & 3;
+  }
+
+  // Write an edge's moves into a path starting at some index
+  void expand(int edge, Path path, int at) {
+    for (int i = 0; i < lengths[edge]; i++)
+      path.put(at + i, getStep(edge, i));
+  }
+
+  private boolean open(int x, int y) { return x >= 0 && x < width && y >= 0 && y < maze.getHeight() && !maze.isBlocked(x, y); }
+
+  private int degree(int x, int y) {
+    int n = 0;
+    for (int d = 0; d < 4; d++)
+      if (open(x + DX[d], y + DY[d]))
+        n++;
+    return n;
+  }
+
+  private void appendStep(int dir) {
+    if (stepCount >>> 2 == steps.length) {
+      assert (steps.length < Integer.MAX_VALUE/2);
+      steps = Arrays.copyOf(steps, steps.length*2);
+    }
+
+    steps[(int)(stepCount >>> 2)] |= dir << ((stepCount & 3) << 1);
+    stepCount++;
+  }
+
+  private void addEdge(int target, int length, long first) {
+    if (edges == targets.length) {
+      targets = Arrays.copyOf(targets, edges*2);
+      lengths = Arrays.copyOf(lengths, edges*2);
+      stepOffsets = Arrays.copyOf(stepOffsets, edges*2);
+    }
+
+    targets[edges] = target;
+    lengths[edges] = length;
+    stepOffsets[edges++] = first;
+  }
+}
@@ -0,0 +1,93 @@
+package hoggle;
+
+import java.util.Arrays;
+
+// Shortest-path A* over a JunctionGraph rather than over cells: each expansion crosses a whole corridor, and corridors are
+// unpacked into moves only along the path found. The graph is built afresh for every solve
+public class JunctionGraphSolver implements Solver {
+  private long expansions = 0;
+  private JunctionGraph graph;
+
+  @Override
+  public Path solve(MazeGrid maze, int startX, int startY, int endX, int endY) {
+    graph = new JunctionGraph(maze, startX, startY, endX, endY);
+    assert (graph.getStartNode() >= 0 && graph.getEndNode() >= 0);
+
+    int nodes = graph.getNodeCount(), start = graph.getStartNode(), end = graph.getEndNode();
+    int[] g = new int[nodes];
+    int[] via = new int[nodes]; // Edge a node was last reached by
+    boolean[] closed = new boolean[nodes];
+    IntHeap open = new IntHeap();
+
+    expansions = 0;
+    Arrays.fill(g, Integer.MAX_VALUE);
+    g[start] = 0;
+    via[start] = -1;
+    open.push(start, key(0, Math.abs(endX-startX) + Math.abs(endY-startY)));
+
+    while (!open.isEmpty()) {
+      Solver.checkInterrupted();
+      int cur = open.pop();
+
+      // Stale heap entries are skipped rather than decreased in place
+      if (closed[cur])
+        continue;
+      closed[cur] = true;
+      expansions++;
+
+      if (cur == end)
+        return path(via, g[end], start, end);
+
+      for (int e = graph.getFirstEdge(cur); e < graph.getFirstEdge(cur+1); e++) {
+        int next = graph.getTarget(e), ng = g[cur] + graph.getLength(e);
+
+        if (!closed[next] && ng < g[next]) {
+          g[next] = ng;
+          via[next] = e;
+          open.push(next, key(ng, Math.abs(endX - graph.getX(next)) + Math.abs(endY - graph.getY(next))));
+        }
+      }
+    }
+
+    return null;
+  }
+
+  @Override
+  public long getExpansions() { return expansions; }
+
+  // Return the graph built by the last solve
+  public JunctionGraph getGraph() { return graph; }
+
+  // Order by f = g + h, breaking ties toward the node nearer the end
+  private static long key(int g, int h) { return ((long)(g+h) << 32) | h; }
+
+  // Unpack the corridors of the path back from the end, last corridor first, each into its place in the path
+  private Path path(int[] via, int length, int start, int end) {
+    Path moves = new Path(length);
+    int at = length;
+
+    for (int cur = end; cur != start; ) {
+      int e = via[cur];
+      at -= graph.getLength(e);
+      graph.expand(e, moves, at);
+      cur = source(e);
+    }
+
+    return moves;
+  }
+
+  // Return the node an edge leaves from, the last whose edges begin at or before it
+  private int source(int edge) {
+    int lo = 0, hi = graph.getNodeCount()-1;
+
+    while (lo < hi) {
+      int mid = (lo + hi + 1) >>> 1;
+      if (graph.getFirstEdge(mid) <= edge)
+        lo = mid;
+      else
+        hi = mid-1;
+    }
+
+    return lo;
+  }
+}
@@ -0,0 +1,46 @@
+package hoggle;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+// Releases memory mappings as soon as they are done with, rather than whenever the garbage collector frees their buffers;
+// until then each one counts against the process's limit on mappings, which a loop of loads can exhaust long before the
+// heap fills. The JDK's unmapper isn't public API and is found reflectively, so without it this does nothing
+final class Mappings {
+  private static final Object UNSAFE;
+  private static final Method INVOKE_CLEANER;
+
+  static {
+    Object unsafe = null;
+    Method invokeCleaner = null;
+
+    try {
+      Class<?> c = Class.forName("sun.misc.Unsafe");
+      Field f = c.getDeclaredField("theUnsafe");
+      f.setAccessible(true);
+      unsafe = f.get(null);
+      invokeCleaner = c.getMethod("invokeCleaner", ByteBuffer.class);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      unsafe = null;
+      invokeCleaner = null;
+    }
+
+    UNSAFE = unsafe;
+    INVOKE_CLEANER = invokeCleaner;
+  }
+
+  private Mappings() {}
+
+  // Unmap a buffer returned by FileChannel.map, not a slice or view of one. Neither it nor any view of it may be used again
+  static void unmap(ByteBuffer b) {
+    if (INVOKE_CLEANER == null || b == null)
+      return;
+
+    try {
+      INVOKE_CLEANER.invoke(UNSAFE, b);
+    } catch (ReflectiveOperationException e) {
+      // Leave it to the garbage collector
+    }
+  }
+}
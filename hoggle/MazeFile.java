@@ -0,0 +1,184 @@
+package hoggle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+// A maze loaded from disk along with its start and end. Text mazes start with a line giving their size in cells, followed
+// by rows where ' ', '*' (start) and 'O' (end) are open and anything else is a wall; a maze of w by h cells spans
+// 2w+1 by 2h+1 characters. Binary mazes are a fixed header followed by the grid packed as BinaryMazeGrid lays it out
+public class MazeFile {
+  // "HOGL" read as a little-endian int
+  static final int MAGIC = 0x4c474f48, VERSION = 2, HEADER_BYTES = 32;
+
+  // Bytes of a text maze mapped at a time while looking for the end of its header line
+  private static final int HEADER_WINDOW = 4096;
+
+  private final MazeGrid grid;
+  private final Coordinate start, end;
+  private long loadNanos = 0;
+
+  public MazeFile(MazeGrid grid, Coordinate start, Coordinate end) {
+    this.grid = grid;
+    this.start = start;
+    this.end = end;
+  }
+
+  public MazeGrid getGrid() { return grid; }
+
+  public Coordinate getStart() { return start; }
+
+  public Coordinate getEnd() { return end; }
+
+  // Return how long reading this maze took, or zero if it wasn't read from a file
+  public long getLoadNanos() { return loadNanos; }
+
+  // Construct a Hoggle to solve this maze. Its roadblocks are kept apart from this maze's grid, so the maze can be solved
+  // again, and its stats include the load. A bit-packed grid's walls are copied, a word per 64 cells, so the solver checks
+  // a cell with a single read of its own grid; any other grid, e.g. a mapped one too large to copy, gets an overlay
+  public Hoggle createSolver() {
+    MazeGrid own = grid instanceof BitMazeGrid ? BitMazeGrid.wallsOf(grid) : new RoadblockOverlay(grid);
+    Hoggle h = new Hoggle(own, start, end);
+    h.setLoadNanos(loadNanos);
+    return h;
+  }
+
+  /* * * TEXT FORMAT * * */
+
+  // Parse a text maze straight from a memory-mapped view of its file into a bit-packed grid, without building any strings
+  public static MazeFile readText(File f) throws IOException {
+    long started = System.nanoTime();
+
+    try (RandomAccessFile raf = new RandomAccessFile(f, "r"); FileChannel channel = raf.getChannel()) {
+      long size = channel.size(), pos = 0;
+      int[] header = new int[2];
+      int fields = 0, value = -1;
+      MappedByteBuffer buf = null;
+      long bufStart = 0;
+
+      // Header: two integers, then the rest of the first line, mapped a small window at a time since it's rarely long
+      for (; pos < size; pos++) {
+        if (buf == null || pos - bufStart >= buf.limit()) {
+          Mappings.unmap(buf);
+          bufStart = pos;
+          buf = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(HEADER_WINDOW, size - pos));
+        }
+
+        byte c = buf.get((int)(pos - bufStart));
+
+        if (c >= '0' && c <= '9')
+          value = (value < 0 ? 0 : value*10) + (c - '0');
+        else if (value >= 0 && fields < 2) {
+          header[fields++] = value;
+          value = -1;
+        }
+
+        if (c == '\n') {
+          pos++;
+          break;
+        }
+      }
+
+      Mappings.unmap(buf);
+      if (fields < 2)
+        throw new IOException("Missing maze dimensions in " + f);
+
+      BitMazeGrid grid = new BitMazeGrid(header[0]*2+1, header[1]*2+1);
+      int row = 0, col = 0, startX = -1, startY = -1, endX = -1, endY = -1;
+
+      while (pos < size && row < grid.getHeight()) {
+        long window = Math.min(Integer.MAX_VALUE, size - pos);
+        buf = channel.map(FileChannel.MapMode.READ_ONLY, pos, window);
+
+        // Each window is unmapped once parsed, so that loading many mazes doesn't pile up mappings awaiting collection
+        for (int i = 0; i < window && row < grid.getHeight(); i++) {
+          byte c = buf.get(i);
+
+          if (c == '\n') {
+            row++;
+            col = 0;
+            continue;
+          } else if (c == '\r')
+            continue;
+
+          if (col < grid.getWidth() && (c == ' ' || c == '*' || c == 'O')) {
+            grid.setOpen(col, row, true);
+
+            if (c == '*') {
+              assert (startX == -1 && startY == -1);
+              startX = col;
+              startY = row;
+            } else if (c == 'O') {
+              assert (endX == -1 && endY == -1);
+              endX = col;
+              endY = row;
+            }
+          }
+
+          col++;
+        }
+
+        Mappings.unmap(buf);
+        pos += window;
+      }
+
+      if (startX < 0 || endX < 0)
+        throw new IOException("Maze " + f + " is missing its start or end");
+
+      return loaded(new MazeFile(grid, new Coordinate(startX, startY), new Coordinate(endX, endY)), started);
+    }
+  }
+
+  // Write this maze in the text format; roadblocks are not saved
+  public void writeText(File f) throws IOException { write(new TextMazeWriter(f, grid.getWidth(), grid.getHeight(), start, end)); }
+
+  /* * * BINARY FORMAT * * */
+
+  // Write this maze in the binary format; roadblocks are not saved
+  public void writeBinary(File f) throws IOException { write(new BinaryMazeWriter(f, grid.getWidth(), grid.getHeight(), start, end)); }
+
+  // Write this maze as a tiled grid file, to be opened with TiledMazeGrid.open; roadblocks are not saved
+  public void writeTiled(File f) throws IOException {
+    try (TiledMazeGrid tiled = TiledMazeGrid.create(f, grid.getWidth(), grid.getHeight(), start, end, TiledMazeGrid.tilesAcross(grid.getWidth()))) {
+      write(tiled.writer());
+    }
+  }
+
+  // Map a binary maze read-only and use its grid in place. Roadblocks placed while solving live in memory only, so the file
+  // itself is never changed and needs only read access
+  public static MazeFile readBinary(File f) throws IOException {
+    long started = System.nanoTime();
+
+    try (RandomAccessFile raf = new RandomAccessFile(f, "r"); FileChannel channel = raf.getChannel()) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      channel.read(header, 0);
+
+      if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION)
+        throw new IOException(f + " is not a binary maze");
+
+      int width = header.getInt(8), height = header.getInt(12);
+      MazeGrid grid = new BinaryMazeGrid(channel, HEADER_BYTES, width, height);
+
+      Coordinate start = new Coordinate(header.getInt(16), header.getInt(20)), end = new Coordinate(header.getInt(24), header.getInt(28));
+      return loaded(new MazeFile(grid, start, end), started);
+    }
+  }
+
+  private static MazeFile loaded(MazeFile m, long started) {
+    m.loadNanos = System.nanoTime() - started;
+    return m;
+  }
+
+  // Stream every cell of the grid to some writer, then close it
+  private void write(MazeWriter out) throws IOException {
+    try (MazeWriter w = out) {
+      for (int y = 0; y < grid.getHeight(); y++)
+        for (int x = 0; x < grid.getWidth(); x++)
+          w.write(grid.isOpen(x, y));
+    }
+  }
+}
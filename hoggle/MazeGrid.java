@@ -0,0 +1,36 @@
+package hoggle;
+
+// A rectangular maze of open and walled cells, addressed by (x, y) with (0, 0) at the top-left
+public interface MazeGrid {
+  int getWidth();
+
+  int getHeight();
+
+  // Return whether or not some in-bounds position is open (not a wall)
+  boolean isOpen(int x, int y);
+
+  void setOpen(int x, int y, boolean open);
+
+  // Return whether or not some in-bounds position is a wall or a roadblock
+  boolean isBlocked(int x, int y);
+
+  // Roadblocks close off open cells found to lead nowhere; walls are unaffected by them
+  boolean isRoadblock(int x, int y);
+
+  void setRoadblock(int x, int y, boolean roadblock);
+
+  // Return a 64-bit hash of the grid's size and walls, ignoring roadblocks. Grids with equal walls hash equally whatever
+  // their kind; this default reads every cell, and grids that can do better remember or pack theirs
+  default long contentHash() { return BitMazeGrid.contentHash(this); }
+
+  // Return whether or not threads may read the grid and set roadblocks in disjoint bands of rows at the same time, as
+  // parallel optimization does. Grids aren't assumed to allow it unless they say so
+  default boolean allowsConcurrentRows() { return false; }
+
+  // Get ready for roadblocks to be placed from several threads, e.g. by allocating where they are kept; called on one
+  // thread before any of them start. Grids needing nothing of the kind ignore it
+  default void prepareRoadblocks() {}
+
+  // Return an empty set for marking positions visited while exploring this maze
+  default VisitedSet newVisitedSet() { return new VisitedSet(getWidth(), getHeight(), false); }
+}
@@ -0,0 +1,156 @@
+package hoggle;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Answers many start/end queries against one maze without optimizing it for each. The index keeps its own roadblock-free
+// copy of the maze's walls, since roadblocks only make sense for one start and end, and a BFS distance field toward each
+// endpoint recently queried. A query whose end (or start) already has a field just walks downhill from the other
+// endpoint, in time proportional to the path; otherwise it costs one BFS over the maze, which later queries reuse. Fields
+// are kept for a bounded number of endpoints, the least recently used dropped first. Queries may run concurrently
+public class MazeIndex {
+  private static final int[] DX = {0, 0, -1, 1}, DY = {-1, 1, 0, 0};
+
+  private final BitMazeGrid walls;
+  private final int width, height;
+  private final long hash, fieldBytes;
+  private final Map<Integer, int[]> fields;
+  private long fieldsBuilt = 0;
+
+  // The cache holding this index, if any, which is told whenever the index grows or shrinks; guarded by the index's lock
+  private MazeIndexCache cache;
+
+  // Index some maze, keeping distance fields for up to some number of endpoints at once
+  public MazeIndex(MazeGrid maze, final int maxFields) {
+    assert (maxFields >= 1);
+    assert ((long)maze.getWidth()*maze.getHeight() <= Integer.MAX_VALUE);
+
+    this.walls = BitMazeGrid.wallsOf(maze);
+    this.width = walls.getWidth();
+    this.height = walls.getHeight();
+    this.hash = walls.contentHash();
+    this.fieldBytes = (long)width*height*4;
+    this.fields = new LinkedHashMap<Integer, int[]>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) { return size() > maxFields; }
+    };
+  }
+
+  // Return the hash of the indexed maze's walls, as computed by contentHash()
+  public long getContentHash() { return hash; }
+
+  // Return a hash of some maze's size and walls, ignoring roadblocks; see MazeGrid.contentHash
+  public static long contentHash(MazeGrid maze) { return maze.contentHash(); }
+
+  // Return whether or not some maze has exactly the walls indexed, which a matching hash alone doesn't promise
+  public boolean hasWalls(MazeGrid maze) { return walls.sameWalls(maze); }
+
+  // Return a shortest path between two open positions, or null if they aren't connected
+  public Path query(int startX, int startY, int endX, int endY) {
+    assert (walls.isOpen(startX, startY) && walls.isOpen(endX, endY));
+
+    int start = startY*width + startX, end = endY*width + endX;
+    int[] field = cachedField(end);
+
+    if (field != null)
+      return descend(field, start, false);
+    if ((field = cachedField(start)) != null)
+      return descend(field, end, true);
+
+    return descend(field(end), start, false);
+  }
+
+  // Build the distance field toward some endpoint ahead of the queries that will use it
+  public void precompute(int x, int y) { field(y*width + x); }
+
+  // Return the number of endpoints with a distance field currently kept
+  public synchronized int getFieldCount() { return fields.size(); }
+
+  // Return the number of distance fields built over the index's life, including those since dropped
+  public synchronized long getFieldsBuilt() { return fieldsBuilt; }
+
+  // Return roughly how many bytes the index holds
+  public synchronized long getMemoryBytes() { return (((long)width*height + 63) >>> 6)*8 + fields.size()*fieldBytes; }
+
+  // Attach the index to a cache, or detach it with null, returning its size at that moment for the cache's total
+  synchronized long setCache(MazeIndexCache c) {
+    cache = c;
+    return getMemoryBytes();
+  }
+
+  /* * * DISTANCE FIELDS * * */
+
+  private synchronized int[] cachedField(int cell) { return fields.get(cell); }
+
+  // Return the field toward some cell, building it if need be. The BFS runs outside the lock, so concurrent first queries
+  // to one endpoint may each build it
+  private int[] field(int target) {
+    int[] field = cachedField(target);
+    if (field != null)
+      return field;
+
+    field = bfs(target);
+
+    synchronized (this) {
+      int before = fields.size();
+      fields.put(target, field);
+      fieldsBuilt++;
+
+      // The put may have dropped the oldest field as well, so the change is taken from the count
+      if (cache != null && fields.size() != before)
+        cache.resized((fields.size() - before)*fieldBytes);
+    }
+
+    return field;
+  }
+
+  // Breadth-first search outward from a cell, recording every open cell's distance from it; -1 marks unreachable cells
+  private int[] bfs(int target) {
+    int[] dist = new int[width*height], queue = new int[width*height];
+    int head = 0, tail = 0;
+
+    Arrays.fill(dist, -1);
+    dist[target] = 0;
+    queue[tail++] = target;
+
+    while (head < tail) {
+      int cur = queue[head++], cx = cur % width, cy = cur / width;
+
+      for (int d = 0; d < 4; d++) {
+        int nx = cx + DX[d], ny = cy + DY[d], next = ny*width + nx;
+        if (nx >= 0 && nx < width && ny >= 0 && ny < height && dist[next] < 0 && walls.isOpen(nx, ny)) {
+          dist[next] = dist[cur] + 1;
+          queue[tail++] = next;
+        }
+      }
+    }
+
+    return dist;
+  }
+
+  // Walk down a distance field from some cell to the field's target. The moves found lead toward the target; when the
+  // field belongs to the query's start instead, they are reversed into a path leading away from it
+  private Path descend(int[] field, int from, boolean reverse) {
+    int length = field[from];
+    if (length < 0)
+      return null;
+
+    Path path = new Path(length);
+
+    for (int i = 0, cur = from; i < length; i++) {
+      int cx = cur % width, cy = cur / width, d = 0;
+
+      for (; d < 4; d++) {
+        int nx = cx + DX[d], ny = cy + DY[d];
+        if (nx >= 0 && nx < width && ny >= 0 && ny < height && field[ny*width + nx] == field[cur] - 1)
+          break;
+      }
+
+      path.put(reverse ? length-1-i : i, reverse ? d ^ 1 : d);
+      cur += DY[d]*width + DX[d];
+    }
+
+    return path;
+  }
+}
@@ -0,0 +1,98 @@
+package hoggle;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// A memory-bounded LRU cache of MazeIndexes, keyed by the content hash of each maze's walls, so that equal mazes share one
+// index however they were loaded. A hit is confirmed by comparing the maze's walls with the index's, so a hash collision
+// can't return another maze's distances; grids remember their hash, so a fetch costs that comparison, a word of 64 cells
+// at a time for bit-packed grids. Queries themselves cost only the path, so callers with many queries against one maze
+// should keep the index fetched. Indexes tell the cache as they gather distance fields, and the running total is held to
+// budget whenever an index is fetched; the index just fetched is never evicted, even when it alone is over budget. Safe
+// for concurrent use
+public class MazeIndexCache {
+  private final long maxBytes;
+  private final int fieldsPerIndex;
+  private final LinkedHashMap<Long, MazeIndex> indexes = new LinkedHashMap<Long, MazeIndex>(16, 0.75f, true);
+  private final AtomicLong memory = new AtomicLong();
+  private long hits = 0, misses = 0;
+
+  // Cache indexes up to some total size, each keeping distance fields for up to some number of endpoints
+  public MazeIndexCache(long maxBytes, int fieldsPerIndex) {
+    assert (maxBytes > 0 && fieldsPerIndex >= 1);
+
+    this.maxBytes = maxBytes;
+    this.fieldsPerIndex = fieldsPerIndex;
+  }
+
+  // Return the index of some maze, building it if no maze with the same walls is cached
+  public MazeIndex get(MazeGrid maze) {
+    long key = maze.contentHash();
+    MazeIndex index;
+
+    synchronized (this) {
+      index = indexes.get(key);
+      if (index != null && index.hasWalls(maze)) {
+        hits++;
+        trim(index);
+        return index;
+      }
+      misses++;
+    }
+
+    // Build outside the lock so that other mazes aren't held up; a concurrent miss on the same maze keeps the first built
+    MazeIndex built = new MazeIndex(maze, fieldsPerIndex);
+
+    synchronized (this) {
+      index = indexes.get(key);
+
+      // A different maze under the same hash gives way to this one
+      if (index == null || !index.hasWalls(maze)) {
+        if (index != null)
+          memory.addAndGet(-index.setCache(null));
+        indexes.put(key, index = built);
+        memory.addAndGet(index.setCache(this));
+      }
+
+      trim(index);
+      return index;
+    }
+  }
+
+  // Find a shortest path through some maze using its cached index
+  public Path query(MazeGrid maze, int startX, int startY, int endX, int endY) { return get(maze).query(startX, startY, endX, endY); }
+
+  public synchronized int size() { return indexes.size(); }
+
+  public synchronized long getHits() { return hits; }
+
+  public synchronized long getMisses() { return misses; }
+
+  // Return roughly how many bytes the cached indexes hold
+  public long getMemoryBytes() { return memory.get(); }
+
+  public synchronized void clear() {
+    for (MazeIndex index : indexes.values())
+      memory.addAndGet(-index.setCache(null));
+    indexes.clear();
+  }
+
+  // Called by a cached index, under its own lock, when its size changes
+  void resized(long delta) { memory.addAndGet(delta); }
+
+  // Evict the least recently used indexes until the cache fits its budget, sparing one
+  private void trim(MazeIndex keep) {
+    Iterator<Map.Entry<Long, MazeIndex>> it = indexes.entrySet().iterator();
+
+    while (memory.get() > maxBytes && it.hasNext()) {
+      MazeIndex index = it.next().getValue();
+      if (index == keep)
+        continue;
+
+      memory.addAndGet(-index.setCache(null));
+      it.remove();
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package hoggle;
+
+import java.io.File;
+import java.io.IOException;
+
+// Somewhere a maze can be loaded from when a batch gets around to solving it
+public interface MazeSource {
+  // Name used for the maze's results and solution files
+  String getName();
+
+  MazeFile load() throws IOException;
+
+  // A text maze file, named after the file without its extension
+  static MazeSource text(File f) { return new FileSource(f, false); }
+
+  // A binary maze file, named after the file without its extension
+  static MazeSource binary(File f) { return new FileSource(f, true); }
+
+  final class FileSource implements MazeSource {
+    private final File file;
+    private final boolean binary;
+
+    private FileSource(File file, boolean binary) {
+      this.file = file;
+      this.binary = binary;
+    }
+
+    @Override
+    public String getName() {
+      String name = file.getName();
+      return name.indexOf('.') > 0 ? name.substring(0, name.lastIndexOf('.')) : name;
+    }
+
+    @Override
+    public MazeFile load() throws IOException { return binary ? MazeFile.readBinary(file) : MazeFile.readText(file); }
+  }
+}
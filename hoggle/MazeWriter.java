@@ -0,0 +1,10 @@
+package hoggle;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// Somewhere a maze can be streamed to one cell at a time in row-major order, so it never has to be held in memory whole
+public interface MazeWriter extends Closeable {
+  // Append the next cell
+  void write(boolean open) throws IOException;
+}
@@ -0,0 +1,25 @@
+package hoggle;
+
+// Caches the costs of another heuristic in a per-cell table, filled in as positions are first asked about
+public class MemoizedHeuristic implements Heuristic {
+  private final Heuristic source;
+  private final int width;
+  private final int[] table;
+
+  public MemoizedHeuristic(Heuristic source, int width, int height) {
+    assert ((long)width*height <= Integer.MAX_VALUE);
+
+    this.source = source;
+    this.width = width;
+    this.table = new int[width*height];
+  }
+
+  // Entries hold cost+1 so that the zeroed table reads as empty
+  @Override
+  public int cost(int x, int y) {
+    int i = y*width + x;
+    if (table[i] == 0)
+      table[i] = source.cost(x, y) + 1;
+    return table[i] - 1;
+  }
+}
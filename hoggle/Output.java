@@ -0,0 +1,6 @@
+package hoggle;
+
+// What a solve produces besides its path: PNG_ANIMATION saves a picture of every step, PNG_SOLUTION saves the path drawn
+// over the maze, ASCII_ANIMATION draws every step to the output stream, STEP_BY_STEP waits for enter after each ASCII
+// frame, and TELEMETRY prints warnings and the solve's stats. A solve with none of them is headless
+public enum Output { PNG_ANIMATION, PNG_SOLUTION, ASCII_ANIMATION, STEP_BY_STEP, TELEMETRY }
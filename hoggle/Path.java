@@ -0,0 +1,74 @@
+package hoggle;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+// A path through a maze, packed two bits per step, four steps to a byte. It reads as an ordinary list of directions,
+// each decoded as it is asked for, and can also be read as runs of steps in the same direction
+public final class Path extends AbstractList<Direction> implements RandomAccess {
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  private final byte[] steps;
+  private final int length;
+  private int[] runEnds; // Index one past the last step of each run, found when first asked for
+
+  // Create a path of some length for a solver to fill in, in any order
+  Path(int length) { this(new byte[(length + 3) >>> 2], length); }
+
+  Path(byte[] steps, int length) {
+    assert (steps.length >= (length + 3) >>> 2);
+
+    this.steps = steps;
+    this.length = length;
+  }
+
+  // Set the step at some index to a direction's ordinal
+  void put(int i, int dir) {
+    int shift = (i & 3) << 1;
+    steps[i >>> 2] = (byte)((steps[i >>> 2] & ~(3 << shift)) | (dir << shift));
+  }
+
+  // Return the ordinal of the direction of the step at some index
+  int ordinal(int i) { return (steps[i >>> 2] >>> ((i & 3) << 1)) & 3; }
+
+  @Override
+  public Direction get(int i) {
+    if (i < 0 || i >= length)
+      throw new IndexOutOfBoundsException("Step " + i + " of " + length);
+    return DIRECTIONS[ordinal(i)];
+  }
+
+  @Override
+  public int size() { return length; }
+
+  /* * * RUN-LENGTH VIEW * * */
+
+  // Return the number of runs of consecutive steps in the same direction
+  public int getRunCount() { return runEnds().length; }
+
+  public Direction getRunDirection(int run) { return get(runEnds()[run] - 1); }
+
+  public int getRunLength(int run) {
+    int[] ends = runEnds();
+    return ends[run] - (run == 0 ? 0 : ends[run-1]);
+  }
+
+  private int[] runEnds() {
+    if (runEnds != null)
+      return runEnds;
+
+    int[] ends = new int[16];
+    int runs = 0;
+
+    for (int i = 1; i <= length; i++) {
+      if (i < length && ordinal(i) == ordinal(i-1))
+        continue;
+      if (runs == ends.length)
+        ends = Arrays.copyOf(ends, runs*2);
+      ends[runs++] = i;
+    }
+
+    return runEnds = Arrays.copyOf(ends, runs);
+  }
+}
@@ -1,3 +0,0 @@
-package hoggle;
-
-public abstract class PathElement {}
@@ -0,0 +1,62 @@
+package hoggle;
+
+import java.util.Arrays;
+
+// The stack of moves and junctions Hoggle keeps while exploring. Moves are packed two bits each; junctions are packed a
+// byte each, as described by Junction, alongside the number of moves made before reaching them. The moves alone, in order,
+// are the path so far, and nothing here is bounded by anything but the heap
+final class PathLog {
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  private byte[] moves = new byte[64];
+  private int length = 0;
+  private int[] junctionOffsets = new int[16];
+  private byte[] junctions = new byte[16];
+  private int junctionCount = 0;
+
+  void push(Direction dir) {
+    if (length >>> 2 == moves.length)
+      moves = Arrays.copyOf(moves, moves.length*2);
+
+    int shift = (length & 3) << 1;
+    moves[length >>> 2] = (byte)((moves[length >>> 2] & ~(3 << shift)) | (dir.ordinal() << shift));
+    length++;
+  }
+
+  // Remove and return the last move; the top of the log must not be a junction
+  Direction pop() {
+    assert (length > 0 && !atJunction());
+
+    length--;
+    return DIRECTIONS[(moves[length >>> 2] >>> ((length & 3) << 1)) & 3];
+  }
+
+  void pushJunction(int j) {
+    if (junctionCount == junctions.length) {
+      junctionOffsets = Arrays.copyOf(junctionOffsets, junctionCount*2);
+      junctions = Arrays.copyOf(junctions, junctionCount*2);
+    }
+
+    junctionOffsets[junctionCount] = length;
+    junctions[junctionCount++] = (byte)j;
+  }
+
+  // Return the last junction pushed, even if moves have been made since
+  int peekJunction() { return junctions[junctionCount-1]; }
+
+  // Replace the last junction pushed, e.g. once one of its branches has been explored
+  void setJunction(int j) { junctions[junctionCount-1] = (byte)j; }
+
+  void popJunction() {
+    assert (atJunction());
+    junctionCount--;
+  }
+
+  // Return whether or not the top of the log is a junction rather than a move
+  boolean atJunction() { return junctionCount > 0 && junctionOffsets[junctionCount-1] == length; }
+
+  boolean isEmpty() { return length == 0 && junctionCount == 0; }
+
+  // Copy out the moves made so far
+  Path toPath() { return new Path(Arrays.copyOf(moves, (length + 3) >>> 2), length); }
+}
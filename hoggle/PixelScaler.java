@@ -0,0 +1,29 @@
+package hoggle;
+
+// Nearest-neighbor integer upscaling of row-major packed RGB pixels
+public final class PixelScaler {
+  private PixelScaler() {}
+
+  // Write each source pixel as a scale-by-scale block of the destination; the first copy of each row is stretched pixel
+  // by pixel and the rest are bulk copies of it
+  public static void upscale(int[] src, int width, int height, int[] dst, int scale) {
+    int dstWidth = width*scale;
+
+    for (int y = 0; y < height; y++) {
+      int row = y*scale*dstWidth;
+      stretch(src, y*width, width, dst, row, scale);
+
+      for (int s = 1; s < scale; s++)
+        System.arraycopy(dst, row, dst, row + s*dstWidth, dstWidth);
+    }
+  }
+
+  // Repeat each of some pixels scale times side by side
+  public static void stretch(int[] src, int srcOffset, int width, int[] dst, int dstOffset, int scale) {
+    for (int x = 0, i = dstOffset; x < width; x++) {
+      int pixel = src[srcOffset + x];
+      for (int s = 0; s < scale; s++)
+        dst[i++] = pixel;
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package hoggle;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+// Encodes an 8-bit RGB PNG one row at a time, so an image of any height is written in memory bounded by its width. Rows
+// identical to the one before are encoded with the Up filter, which turns them into zeros that deflate to almost nothing.
+// The compressor holds native memory until close(), which must be called even if writing fails
+public class PngStreamWriter implements Closeable {
+  private static final byte[] SIGNATURE = {(byte)137, 80, 78, 71, 13, 10, 26, 10};
+
+  private final DataOutputStream out;
+  private final ChunkStream idat;
+  private final DeflaterOutputStream deflated;
+  private final Deflater deflater;
+  private final int width, height;
+  private final byte[] row, previous, filtered;
+  private int rowsWritten = 0;
+
+  public PngStreamWriter(OutputStream out, int width, int height) throws IOException {
+    this.out = new DataOutputStream(out);
+    this.width = width;
+    this.height = height;
+    this.row = new byte[width*3];
+    this.previous = new byte[width*3];
+    this.filtered = new byte[1 + width*3];
+
+    this.out.write(SIGNATURE);
+
+    byte[] header = new byte[13];
+    putInt(header, 0, width);
+    putInt(header, 4, height);
+    header[8] = 8; // Bit depth
+    header[9] = 2; // Truecolor
+    writeChunk(this.out, "IHDR", header, header.length);
+
+    // Created only once nothing more can fail here, as a caller can't close a writer whose constructor threw
+    deflater = new Deflater(Deflater.BEST_SPEED);
+    idat = new ChunkStream(this.out);
+    deflated = new DeflaterOutputStream(idat, deflater, 1 << 16);
+  }
+
+  // Encode the next row from width packed RGB pixels starting at some offset
+  public void writeRow(int[] pixels, int offset) throws IOException {
+    assert (rowsWritten < height);
+
+    for (int x = 0, i = 0; x < width; x++) {
+      int p = pixels[offset + x];
+      row[i++] = (byte)(p >>> 16);
+      row[i++] = (byte)(p >>> 8);
+      row[i++] = (byte)p;
+    }
+
+    if (rowsWritten > 0 && Arrays.equals(row, previous)) {
+      // Up filter: every byte equals the one above it
+      Arrays.fill(filtered, (byte)0);
+      filtered[0] = 2;
+    } else {
+      // Sub filter: each byte less the same channel of the pixel to its left
+      filtered[0] = 1;
+      for (int i = 0; i < row.length; i++)
+        filtered[i+1] = (byte)(row[i] - (i >= 3 ? row[i-3] : 0));
+      System.arraycopy(row, 0, previous, 0, row.length);
+    }
+
+    deflated.write(filtered);
+    rowsWritten++;
+  }
+
+  // Finish the image if every row has been written, and release the compressor either way; an image left short, e.g. by
+  // a failed write, is abandoned
+  @Override
+  public void close() throws IOException {
+    try {
+      if (rowsWritten == height) {
+        deflated.finish();
+        idat.flush();
+        writeChunk(out, "IEND", new byte[0], 0);
+        out.flush();
+      }
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static void writeChunk(DataOutputStream out, String type, byte[] data, int length) throws IOException {
+    byte[] typeBytes = type.getBytes("US-ASCII");
+    CRC32 crc = new CRC32();
+    crc.update(typeBytes);
+    crc.update(data, 0, length);
+
+    out.writeInt(length);
+    out.write(typeBytes);
+    out.write(data, 0, length);
+    out.writeInt((int)crc.getValue());
+  }
+
+  private static void putInt(byte[] b, int at, int v) {
+    b[at] = (byte)(v >>> 24);
+    b[at+1] = (byte)(v >>> 16);
+    b[at+2] = (byte)(v >>> 8);
+    b[at+3] = (byte)v;
+  }
+
+  // Buffers compressed bytes and emits them as IDAT chunks of bounded size
+  private static final class ChunkStream extends OutputStream {
+    private final DataOutputStream out;
+    private final byte[] buffer = new byte[1 << 16];
+    private int size = 0;
+
+    ChunkStream(DataOutputStream out) { this.out = out; }
+
+    @Override
+    public void write(int b) throws IOException {
+      if (size == buffer.length)
+        flush();
+      buffer[size++] = (byte)b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      while (len > 0) {
+        if (size == buffer.length)
+          flush();
+
+        int n = Math.min(len, buffer.length - size);
+        System.arraycopy(b, off, buffer, size, n);
+        size += n;
+        off += n;
+        len -= n;
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      if (size > 0)
+        writeChunk(out, "IDAT", buffer, size);
+      size = 0;
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package hoggle;
+
+// A view of another grid's walls with roadblocks of its own, so that any number of solvers can optimize the same maze
+// without placing roadblocks in it or seeing each other's. The underlying grid's roadblocks are ignored, and its walls are
+// shared rather than copied, so changing them through the view changes them for every view
+public class RoadblockOverlay implements MazeGrid {
+  private final MazeGrid walls;
+  private final int width;
+  private final RoadblockSet roadblocks;
+
+  public RoadblockOverlay(MazeGrid walls) {
+    this.walls = walls;
+    this.width = walls.getWidth();
+    this.roadblocks = new RoadblockSet((long)walls.getWidth()*walls.getHeight());
+  }
+
+  @Override
+  public int getWidth() { return width; }
+
+  @Override
+  public int getHeight() { return walls.getHeight(); }
+
+  @Override
+  public boolean isOpen(int x, int y) { return walls.isOpen(x, y); }
+
+  @Override
+  public void setOpen(int x, int y, boolean open) {
+    walls.setOpen(x, y, open);
+    if (!open)
+      roadblocks.set(index(x, y), false);
+  }
+
+  @Override
+  public boolean isBlocked(int x, int y) { return !walls.isOpen(x, y) || roadblocks.contains(index(x, y)); }
+
+  @Override
+  public boolean isRoadblock(int x, int y) { return roadblocks.contains(index(x, y)); }
+
+  @Override
+  public void setRoadblock(int x, int y, boolean roadblock) {
+    assert isOpen(x, y);
+    roadblocks.set(index(x, y), roadblock);
+  }
+
+  @Override
+  public long contentHash() { return walls.contentHash(); }
+
+  // Roadblocks of the view's own allow it, so only the walls' reads decide
+  @Override
+  public boolean allowsConcurrentRows() { return walls.allowsConcurrentRows(); }
+
+  @Override
+  public VisitedSet newVisitedSet() { return walls.newVisitedSet(); }
+
+  private long index(int x, int y) { return (long)y*width + x; }
+}
@@ -0,0 +1,46 @@
+package hoggle;
+
+// The roadblocked cells of a grid, by row-major index, as a bitset allocated in pages of 4096 cells only once a roadblock
+// is placed in them, so a grid that hasn't been optimized pays nothing for it. Pages are allocated under a lock, so tasks
+// placing roadblocks in separate words may share a set
+final class RoadblockSet {
+  private static final int PAGE_SHIFT = 12, PAGE_WORDS = 1 << (PAGE_SHIFT - 6);
+
+  private final long[][] pages;
+
+  RoadblockSet(long cells) { this.pages = new long[(int)((cells + (1L << PAGE_SHIFT) - 1) >>> PAGE_SHIFT)][]; }
+
+  // Copy another set
+  RoadblockSet(RoadblockSet source) {
+    this.pages = new long[source.pages.length][];
+    for (int p = 0; p < pages.length; p++)
+      if (source.pages[p] != null)
+        pages[p] = source.pages[p].clone();
+  }
+
+  boolean contains(long i) {
+    long[] page = pages[(int)(i >>> PAGE_SHIFT)];
+    return page != null && (page[(int)(i >>> 6) & (PAGE_WORDS-1)] & (1L << i)) != 0;
+  }
+
+  void set(long i, boolean roadblock) {
+    long[] page = pages[(int)(i >>> PAGE_SHIFT)];
+
+    if (page == null) {
+      if (!roadblock)
+        return;
+      page = allocate((int)(i >>> PAGE_SHIFT));
+    }
+
+    if (roadblock)
+      page[(int)(i >>> 6) & (PAGE_WORDS-1)] |= 1L << i;
+    else
+      page[(int)(i >>> 6) & (PAGE_WORDS-1)] &= ~(1L << i);
+  }
+
+  private synchronized long[] allocate(int p) {
+    if (pages[p] == null)
+      pages[p] = new long[PAGE_WORDS];
+    return pages[p];
+  }
+}
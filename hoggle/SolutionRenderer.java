@@ -0,0 +1,106 @@
+package hoggle;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+// Draws a solution path over its maze, shading from blue to red as it nears the end. Path cells are bucketed by row once,
+// so each output row is built from its maze row plus only the path cells on it, in time linear in the maze and path
+public class SolutionRenderer {
+  private static final int WALL_RGB = Color.WHITE.getRGB(), SPACE_RGB = Color.LIGHT_GRAY.getRGB();
+
+  // The path's shades, packed, indexed by how red they are
+  private static final int[] SHADES = new int[256];
+
+  static {
+    for (int red = 0; red < SHADES.length; red++)
+      SHADES[red] = new Color(255-red, 0, red).getRGB();
+  }
+
+  private final MazeGrid maze;
+  private final int scale, steps;
+  private final int[] rowStart, pathX, pathRGB;
+
+  public SolutionRenderer(MazeGrid maze, int startX, int startY, List<Direction> path, int scale) {
+    this.maze = maze;
+    this.scale = scale;
+    this.steps = path.size();
+    this.rowStart = new int[maze.getHeight()+1];
+    this.pathX = new int[steps];
+    this.pathRGB = new int[steps];
+
+    // Count the path cells on each row, then place them with a counting sort
+    int x = startX, y = startY;
+    for (Direction d : path) {
+      y += d == Direction.UP ? -1 : d == Direction.DOWN ? 1 : 0;
+      rowStart[y+1]++;
+    }
+
+    for (int i = 0; i < maze.getHeight(); i++)
+      rowStart[i+1] += rowStart[i];
+
+    int[] fill = new int[maze.getHeight()];
+    double moves = steps;
+    y = startY;
+
+    for (Direction d : path) {
+      switch (d) {
+        case UP: y--; break;
+        case DOWN: y++; break;
+        case LEFT: x--; break;
+        case RIGHT: x++; break;
+      }
+
+      moves--;
+      int red = (int)((moves/steps)*255);
+      int at = rowStart[y] + fill[y]++;
+      pathX[at] = x;
+      pathRGB[at] = SHADES[red];
+    }
+  }
+
+  // Render the whole upscaled image, writing straight into its pixel buffer
+  public BufferedImage render() {
+    int width = maze.getWidth()*scale;
+    BufferedImage img = new BufferedImage(width, maze.getHeight()*scale, BufferedImage.TYPE_INT_RGB);
+    int[] raster = ((DataBufferInt)img.getRaster().getDataBuffer()).getData();
+    int[] line = new int[maze.getWidth()];
+
+    for (int y = 0; y < maze.getHeight(); y++) {
+      int row = y*scale*width;
+      PixelScaler.stretch(drawRow(y, line), 0, line.length, raster, row, scale);
+
+      for (int s = 1; s < scale; s++)
+        System.arraycopy(raster, row, raster, row + s*width, width);
+    }
+
+    return img;
+  }
+
+  // Encode the upscaled image as a PNG one row at a time, never holding more than one row of it
+  public void writePng(OutputStream out) throws IOException {
+    int[] line = new int[maze.getWidth()], scaled = new int[maze.getWidth()*scale];
+    try (PngStreamWriter png = new PngStreamWriter(out, scaled.length, maze.getHeight()*scale)) {
+      for (int y = 0; y < maze.getHeight(); y++) {
+        PixelScaler.stretch(drawRow(y, line), 0, line.length, scaled, 0, scale);
+        for (int s = 0; s < scale; s++)
+          png.writeRow(scaled, 0);
+      }
+    }
+  }
+
+  // Fill some buffer with the unscaled pixels of a maze row; where the path crosses a cell more than once, its earliest
+  // visit is drawn
+  private int[] drawRow(int y, int[] line) {
+    for (int x = 0; x < line.length; x++)
+      line[x] = maze.isOpen(x, y) ? SPACE_RGB : WALL_RGB;
+
+    for (int i = rowStart[y+1]-1; i >= rowStart[y]; i--)
+      line[pathX[i]] = pathRGB[i];
+
+    return line;
+  }
+}
@@ -0,0 +1,71 @@
+package hoggle;
+
+// Counters and phase timings gathered while a Hoggle solves a maze. Collected only when asked for, and then only as plain
+// field increments, with each phase timed once as a whole
+public final class SolveStats {
+  long cellsScanned, dronesDeployed, roadblocksPlaced, steps, backtracks, junctionsCreated, expansions;
+  long loadNanos, optimizeNanos, solveNanos, renderNanos;
+  int pathLength = -1;
+
+  SolveStats() {}
+
+  // Cells examined for dead-ends during optimization
+  public long getCellsScanned() { return cellsScanned; }
+
+  public long getDronesDeployed() { return dronesDeployed; }
+
+  public long getRoadblocksPlaced() { return roadblocksPlaced; }
+
+  // Moves made by Hoggle's own walk, backtracking included
+  public long getSteps() { return steps; }
+
+  // Times Hoggle retreated to a junction
+  public long getBacktracks() { return backtracks; }
+
+  public long getJunctionsCreated() { return junctionsCreated; }
+
+  // Cells expanded by whichever solver found the path
+  public long getExpansions() { return expansions; }
+
+  // Time spent reading the maze file, if it was loaded through MazeFile
+  public long getLoadNanos() { return loadNanos; }
+
+  public long getOptimizeNanos() { return optimizeNanos; }
+
+  public long getSolveNanos() { return solveNanos; }
+
+  public long getRenderNanos() { return renderNanos; }
+
+  // Length of the path found, or -1 if there was none
+  public int getPathLength() { return pathLength; }
+
+  // Return these stats as a single JSON object
+  public String toJson() {
+    StringBuilder sb = new StringBuilder(320);
+    sb.append('{');
+    field(sb, "cellsScanned", cellsScanned).append(',');
+    field(sb, "dronesDeployed", dronesDeployed).append(',');
+    field(sb, "roadblocksPlaced", roadblocksPlaced).append(',');
+    field(sb, "steps", steps).append(',');
+    field(sb, "backtracks", backtracks).append(',');
+    field(sb, "junctionsCreated", junctionsCreated).append(',');
+    field(sb, "expansions", expansions).append(',');
+    field(sb, "pathLength", pathLength).append(',');
+    field(sb, "loadNanos", loadNanos).append(',');
+    field(sb, "optimizeNanos", optimizeNanos).append(',');
+    field(sb, "solveNanos", solveNanos).append(',');
+    field(sb, "renderNanos", renderNanos);
+    return sb.append('}').toString();
+  }
+
+  private static StringBuilder field(StringBuilder sb, String name, long value) { return sb.append('"').append(name).append("\":").append(value); }
+
+  @Override
+  public String toString() {
+    return String.format("Scanned %d cells, deployed %d drones, placed %d roadblocks%n"
+        + "Took %d steps with %d backtracks over %d junctions, expanding %d cells; path %d long%n"
+        + "Load %.3f ms, optimize %.3f ms, solve %.3f ms, render %.3f ms",
+        cellsScanned, dronesDeployed, roadblocksPlaced, steps, backtracks, junctionsCreated, expansions, pathLength,
+        loadNanos/1e6, optimizeNanos/1e6, solveNanos/1e6, renderNanos/1e6);
+  }
+}
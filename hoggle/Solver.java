@@ -0,0 +1,19 @@
+package hoggle;
+
+import java.util.concurrent.CancellationException;
+
+// A strategy for finding a path through a maze, run after the optimization phase has roadblocked its dead-ends
+public interface Solver {
+  // Return the moves leading from the start to the end, or null if the end cannot be reached
+  Path solve(MazeGrid maze, int startX, int startY, int endX, int endY);
+
+  // Return the number of cells expanded by the last solve
+  long getExpansions();
+
+  // Give up if the solving thread has been interrupted, e.g. by a batch whose time for the maze ran out. Solvers call this
+  // for every cell or node they expand, so that a cancelled solve lets go of its thread promptly
+  static void checkInterrupted() {
+    if (Thread.currentThread().isInterrupted())
+      throw new CancellationException("Solve interrupted");
+  }
+}
@@ -0,0 +1,57 @@
+package hoggle;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Streams a maze into the text format one cell at a time in row-major order. Walls are drawn the way the hand-made mazes
+// draw them, with '+' where walls meet, '-' and '|' between cells, and 'X' for a walled-in cell
+public class TextMazeWriter implements MazeWriter {
+  private final OutputStream out;
+  private final int width, height;
+  private final Coordinate start, end;
+  private int x = 0, y = 0;
+
+  public TextMazeWriter(File f, int width, int height, Coordinate start, Coordinate end) throws IOException {
+    assert (width % 2 == 1 && height % 2 == 1);
+
+    this.width = width;
+    this.height = height;
+    this.start = start;
+    this.end = end;
+    this.out = new BufferedOutputStream(new FileOutputStream(f), 1 << 16);
+
+    out.write((width/2 + " " + height/2 + "\n").getBytes("US-ASCII"));
+  }
+
+  @Override
+  public void write(boolean open) throws IOException {
+    assert (y < height);
+
+    if (x == start.getX() && y == start.getY())
+      out.write('*');
+    else if (x == end.getX() && y == end.getY())
+      out.write('O');
+    else if (open)
+      out.write(' ');
+    else if (x % 2 == 0)
+      out.write(y % 2 == 0 ? '+' : '|');
+    else
+      out.write(y % 2 == 0 ? '-' : 'X');
+
+    if (++x == width) {
+      out.write('\n');
+      x = 0;
+      y++;
+    }
+  }
+
+  // Finish the file; every cell must have been written
+  @Override
+  public void close() throws IOException {
+    assert (y == height);
+    out.close();
+  }
+}
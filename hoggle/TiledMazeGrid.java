@@ -0,0 +1,282 @@
+package hoggle;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// A maze grid kept off-heap in a file of square tiles, each mapped into memory only while it is in use, so a maze can be
+// larger than the heap and its size has no effect on garbage collection. Every tile holds three bit planes for its cells:
+// open, passable (open and not roadblocked) and visited. A file that is all zeroes is all walls, so a new grid is written
+// only where it is opened up. Only the open plane is the stored maze: the other two are scratch space, kept in the file so
+// that solving a huge maze needs no heap-sized sets, and are reset whenever the grid is opened, so roadblocks and visited
+// flags left by one solve never reach the next. Resets are done a tile at a time, the first time each tile is touched, so
+// they don't cost a pass over the file; clearRoadblocks() does the same between solves of one open grid. A fixed number
+// of tiles stay mapped, the least recently used unmapped as soon as it is evicted, and the operating system pages the
+// mapped ones in and out as it sees fit. Not safe for concurrent use, so solvers optimize it on a single thread
+public class TiledMazeGrid implements MazeGrid, Closeable {
+  // "HGLT" read as a little-endian int
+  static final int MAGIC = 0x544c4748, VERSION = 1, HEADER_BYTES = 4096;
+  private static final int SHIFT = 8, SIDE = 1 << SHIFT, MASK = SIDE - 1; // 256 by 256 cells per tile
+  private static final int PLANE_BYTES = SIDE*SIDE/8, TILE_BYTES = PLANE_BYTES*3;
+  private static final int OPEN = 0, PASSABLE = PLANE_BYTES, VISITED = PLANE_BYTES*2;
+
+  private final RandomAccessFile file;
+  private final FileChannel channel;
+  private final int width, height, tilesAcross;
+  private final Coordinate start, end;
+  private final LinkedHashMap<Integer, MappedByteBuffer> resident;
+
+  // Tiles whose roadblocks or visited flags are left over from before the last reset, one bit each
+  private final long[] staleRoadblocks, staleVisited;
+  private final byte[] scratch = new byte[PLANE_BYTES];
+
+  // The tile used last, which nearly every access hits. Mapped tiles are referenced only here and in the resident map, and
+  // by locals that never outlive a tile lookup, so an unmapped tile can never be read: eviction and close() drop both
+  // references before unmapping, and a closed grid maps nothing, failing on its closed channel instead
+  private int lastIndex = -1;
+  private MappedByteBuffer last;
+
+  private TiledMazeGrid(RandomAccessFile file, int width, int height, Coordinate start, Coordinate end, final int cacheTiles) {
+    assert (cacheTiles >= 1);
+
+    this.file = file;
+    this.channel = file.getChannel();
+    this.width = width;
+    this.height = height;
+    this.tilesAcross = tilesAcross(width);
+    this.start = start;
+    this.end = end;
+    this.staleRoadblocks = new long[(tilesAcross*tilesAcross(height) + 63) >>> 6];
+    this.staleVisited = new long[staleRoadblocks.length];
+    clearRoadblocks();
+    clearVisited();
+    this.resident = new LinkedHashMap<Integer, MappedByteBuffer>(cacheTiles*2, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, MappedByteBuffer> eldest) {
+        if (size() <= cacheTiles)
+          return false;
+
+        if (eldest.getKey() == lastIndex) {
+          lastIndex = -1;
+          last = null;
+        }
+        Mappings.unmap(eldest.getValue());
+        return true;
+      }
+    };
+  }
+
+  // Return how many tiles a row of them spans across a grid of some width; writing row by row keeps that many in use
+  public static int tilesAcross(int width) { return (width + MASK) >>> SHIFT; }
+
+  // Create a file for a grid of some size with every cell walled, keeping up to some number of tiles mapped at once
+  public static TiledMazeGrid create(File f, int width, int height, Coordinate start, Coordinate end, int cacheTiles) throws IOException {
+    assert (width > 0 && height > 0);
+
+    long tiles = (long)tilesAcross(width) * tilesAcross(height);
+    RandomAccessFile raf = new RandomAccessFile(f, "rw");
+
+    try {
+      raf.setLength(0);
+      raf.setLength(HEADER_BYTES + tiles*TILE_BYTES);
+
+      ByteBuffer header = ByteBuffer.allocate(36).order(ByteOrder.LITTLE_ENDIAN);
+      header.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height).putInt(SHIFT);
+      header.putInt(start.getX()).putInt(start.getY()).putInt(end.getX()).putInt(end.getY()).flip();
+      raf.getChannel().write(header, 0);
+    } catch (IOException e) {
+      raf.close();
+      throw e;
+    }
+
+    return new TiledMazeGrid(raf, width, height, start, end, cacheTiles);
+  }
+
+  // Open a tiled grid file, keeping up to some number of tiles mapped at once
+  public static TiledMazeGrid open(File f, int cacheTiles) throws IOException {
+    RandomAccessFile raf = new RandomAccessFile(f, "rw");
+
+    try {
+      ByteBuffer header = ByteBuffer.allocate(36).order(ByteOrder.LITTLE_ENDIAN);
+      raf.getChannel().read(header, 0);
+
+      if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getInt(16) != SHIFT)
+        throw new IOException(f + " is not a tiled maze");
+
+      Coordinate start = new Coordinate(header.getInt(20), header.getInt(24)), end = new Coordinate(header.getInt(28), header.getInt(32));
+      return new TiledMazeGrid(raf, header.getInt(8), header.getInt(12), start, end, cacheTiles);
+    } catch (IOException e) {
+      raf.close();
+      throw e;
+    }
+  }
+
+  public Coordinate getStart() { return start; }
+
+  public Coordinate getEnd() { return end; }
+
+  @Override
+  public int getWidth() { return width; }
+
+  @Override
+  public int getHeight() { return height; }
+
+  @Override
+  public boolean isOpen(int x, int y) { return get(OPEN, x, y); }
+
+  @Override
+  public void setOpen(int x, int y, boolean open) {
+    set(OPEN, x, y, open);
+    set(PASSABLE, x, y, open);
+  }
+
+  @Override
+  public boolean isBlocked(int x, int y) { return !get(PASSABLE, x, y); }
+
+  @Override
+  public boolean isRoadblock(int x, int y) { return get(OPEN, x, y) && !get(PASSABLE, x, y); }
+
+  @Override
+  public void setRoadblock(int x, int y, boolean roadblock) {
+    assert isOpen(x, y);
+    set(PASSABLE, x, y, !roadblock);
+  }
+
+  // Visited flags live in the tiles too, so that exploring a huge maze doesn't need a heap-sized visited set
+  @Override
+  public VisitedSet newVisitedSet() {
+    clearVisited();
+
+    return new VisitedSet() {
+      @Override
+      public boolean add(int x, int y) {
+        boolean pioneer = !get(VISITED, x, y);
+        set(VISITED, x, y, true);
+        return pioneer;
+      }
+
+      @Override
+      public boolean contains(int x, int y) { return get(VISITED, x, y); }
+
+      @Override
+      public void clear() { clearVisited(); }
+    };
+  }
+
+  // Clear every visited flag. Tiles are only marked here, and each is cleared when it is next touched
+  public void clearVisited() { Arrays.fill(staleVisited, -1L); }
+
+  // Remove every roadblock, e.g. before solving the grid again for other endpoints. Tiles are only marked here, and each
+  // has its passable cells copied from its open cells when it is next touched
+  public void clearRoadblocks() { Arrays.fill(staleRoadblocks, -1L); }
+
+  // Return a writer that sets every cell in row-major order, e.g. to fill a new grid from a generator or another file. Its
+  // close flushes the grid but leaves it open
+  public MazeWriter writer() {
+    return new MazeWriter() {
+      private long written = 0;
+
+      @Override
+      public void write(boolean open) {
+        assert (written < (long)width*height);
+        setOpen((int)(written % width), (int)(written / width), open);
+        written++;
+      }
+
+      @Override
+      public void close() throws IOException {
+        assert (written == (long)width*height);
+        flush();
+      }
+    };
+  }
+
+  // Write every change so far through to the disk
+  public void flush() throws IOException { channel.force(false); }
+
+  @Override
+  public void close() throws IOException {
+    last = null;
+    lastIndex = -1;
+    for (MappedByteBuffer b : resident.values())
+      Mappings.unmap(b);
+    resident.clear();
+
+    try {
+      flush();
+    } finally {
+      file.close();
+    }
+  }
+
+  /* * * TILES * * */
+
+  private boolean get(int plane, int x, int y) {
+    MappedByteBuffer b = tile(plane, x, y);
+    int i = ((y & MASK) << SHIFT) | (x & MASK);
+    return (b.get(plane + (i >>> 3)) & (1 << (i & 7))) != 0;
+  }
+
+  private void set(int plane, int x, int y, boolean value) {
+    MappedByteBuffer b = tile(plane, x, y);
+    int i = ((y & MASK) << SHIFT) | (x & MASK), at = plane + (i >>> 3);
+    b.put(at, (byte)(value ? b.get(at) | (1 << (i & 7)) : b.get(at) & ~(1 << (i & 7))));
+  }
+
+  // Return the tile holding some cell for use of one of its planes, first resetting that plane if it is stale
+  private MappedByteBuffer tile(int plane, int x, int y) {
+    assert (x >= 0 && x < width && y >= 0 && y < height);
+
+    int index = (y >>> SHIFT)*tilesAcross + (x >>> SHIFT);
+    MappedByteBuffer b = tile(index);
+
+    if (plane == OPEN)
+      return b;
+
+    long[] stale = plane == PASSABLE ? staleRoadblocks : staleVisited;
+    if ((stale[index >>> 6] & (1L << index)) != 0) {
+      stale[index >>> 6] &= ~(1L << index);
+
+      // Passable cells start out as the open ones, and visited flags all clear
+      ByteBuffer d = b.duplicate();
+      if (plane == PASSABLE) {
+        d.position(OPEN);
+        d.get(scratch);
+      } else
+        Arrays.fill(scratch, (byte)0);
+      d.position(plane);
+      d.put(scratch);
+    }
+
+    return b;
+  }
+
+  // Return some tile, mapping it if it isn't resident
+  private MappedByteBuffer tile(int index) {
+    if (index == lastIndex)
+      return last;
+
+    MappedByteBuffer b = resident.get(index);
+
+    if (b == null) {
+      try {
+        b = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + (long)index*TILE_BYTES, TILE_BYTES);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      resident.put(index, b);
+    }
+
+    lastIndex = index;
+    return last = b;
+  }
+}
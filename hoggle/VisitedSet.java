@@ -0,0 +1,64 @@
+package hoggle;
+
+import java.util.Arrays;
+
+// A set of visited maze positions packed one bit per cell, with an optional ordered trail of every position added
+public class VisitedSet {
+  private final int width;
+  private final long[] bits;
+  private long[] trail;
+  private int trailSize = 0;
+
+  public VisitedSet(int width, int height, boolean keepTrail) {
+    this.width = width;
+    this.bits = new long[(int)(((long)width*height + 63) >>> 6)];
+    this.trail = keepTrail ? new long[16] : null;
+  }
+
+  // For sets that keep their bits elsewhere and override add, contains and clear
+  protected VisitedSet() {
+    this.width = 0;
+    this.bits = null;
+  }
+
+  // Mark some position visited and return whether or not it was new
+  public boolean add(int x, int y) {
+    long i = (long)y*width + x;
+    int word = (int)(i >>> 6);
+    boolean pioneer = (bits[word] & (1L << i)) == 0;
+    bits[word] |= 1L << i;
+
+    if (trail != null) {
+      if (trailSize == trail.length)
+        trail = Arrays.copyOf(trail, trailSize*2);
+      trail[trailSize++] = i;
+    }
+
+    return pioneer;
+  }
+
+  public boolean contains(int x, int y) {
+    long i = (long)y*width + x;
+    return (bits[(int)(i >>> 6)] & (1L << i)) != 0;
+  }
+
+  // Forget every position; with a trail this costs only as much as the trail is long
+  public void clear() {
+    if (trail == null) {
+      Arrays.fill(bits, 0L);
+      return;
+    }
+
+    // Every set bit came from the trail, so whole words can be zeroed
+    for (int n = 0; n < trailSize; n++)
+      bits[(int)(trail[n] >>> 6)] = 0L;
+    trailSize = 0;
+  }
+
+  // Trail accessors; entries are in the order they were added, revisits included
+  public int getTrailSize() { return trailSize; }
+
+  public int getTrailX(int n) { return (int)(trail[n] % width); }
+
+  public int getTrailY(int n) { return (int)(trail[n] / width); }
+}
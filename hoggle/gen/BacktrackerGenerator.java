@@ -0,0 +1,40 @@
+package hoggle.gen;
+
+import java.util.SplittableRandom;
+
+// The recursive backtracker: a random depth-first walk that carves into unvisited cells and backs up when stuck, giving
+// long winding corridors with few branches. Rather than a stack, each cell remembers the direction it was entered from,
+// so the walk needs three bits per cell however deep it goes
+public class BacktrackerGenerator extends MazeGenerator {
+  public BacktrackerGenerator(int columns, int rows, long seed) { super(columns, rows, seed); }
+
+  @Override
+  protected void carve(CellMaze maze, SplittableRandom random) {
+    long[] visited = new long[(maze.cells() + 63) >>> 6];
+    DirectionArray back = new DirectionArray(maze.cells());
+    int root = random.nextInt(maze.cells()), cell = root;
+
+    CellMaze.set(visited, root);
+
+    while (true) {
+      int choice = -1, options = 0;
+
+      // Pick uniformly among the unvisited neighbors
+      for (int dir = 0; dir < 4; dir++) {
+        int next = maze.neighbor(cell, dir);
+        if (next >= 0 && !CellMaze.get(visited, next) && random.nextInt(++options) == 0)
+          choice = dir;
+      }
+
+      if (choice >= 0) {
+        maze.carve(cell, choice);
+        cell = maze.neighbor(cell, choice);
+        CellMaze.set(visited, cell);
+        back.set(cell, CellMaze.opposite(choice));
+      } else if (cell == root)
+        break;
+      else
+        cell = maze.neighbor(cell, back.get(cell));
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package hoggle.gen;
+
+import hoggle.BinaryMazeWriter;
+import hoggle.BitMazeGrid;
+import hoggle.Coordinate;
+import hoggle.MazeFile;
+import hoggle.MazeWriter;
+import hoggle.TextMazeWriter;
+import hoggle.TiledMazeGrid;
+import java.io.File;
+import java.io.IOException;
+
+// A generated maze, kept as the passages between its cells at two bits per cell: whether each cell opens to the right and
+// whether it opens downward. The character grid the solver reads, with walls between cells, is derived from these on the
+// fly as it is written, so a maze can be streamed to a file without its grid ever being built. Cells are numbered in
+// row-major order; directions are numbered like Direction's ordinals
+public class CellMaze {
+  static final int UP = 0, DOWN = 1, LEFT = 2, RIGHT = 3;
+
+  private final int columns, rows;
+  private final long[] right, down;
+
+  CellMaze(int columns, int rows) {
+    assert (columns > 0 && rows > 0);
+    assert ((long)columns*rows <= Integer.MAX_VALUE);
+    assert (2L*columns+1 <= Integer.MAX_VALUE && 2L*rows+1 <= Integer.MAX_VALUE);
+
+    this.columns = columns;
+    this.rows = rows;
+    this.right = new long[(int)(((long)columns*rows + 63) >>> 6)];
+    this.down = new long[right.length];
+  }
+
+  public int getColumns() { return columns; }
+
+  public int getRows() { return rows; }
+
+  // Width of the character grid, in which cell (c, r) sits at (2c+1, 2r+1)
+  public int getWidth() { return 2*columns + 1; }
+
+  public int getHeight() { return 2*rows + 1; }
+
+  // The top-left cell, as a position in the character grid
+  public Coordinate getStart() { return new Coordinate(1, 1); }
+
+  // The bottom-right cell, as a position in the character grid
+  public Coordinate getEnd() { return new Coordinate(getWidth()-2, getHeight()-2); }
+
+  /* * * CHARACTER GRID * * */
+
+  // Return whether or not some position in the character grid is open. Cells always are, the walls between cells are
+  // open where a passage was carved, and the posts between walls only where all four walls around them are open
+  public boolean isOpen(int x, int y) {
+    assert (x >= 0 && x < getWidth() && y >= 0 && y < getHeight());
+
+    if (x == 0 || y == 0 || x == getWidth()-1 || y == getHeight()-1)
+      return false;
+
+    int c = (x-1)/2, r = (y-1)/2, cell = r*columns + c;
+
+    if (x % 2 == 1 && y % 2 == 1)
+      return true;
+    else if (x % 2 == 1)
+      return get(down, cell);
+    else if (y % 2 == 1)
+      return get(right, cell);
+    else
+      return get(right, cell) && get(down, cell) && get(right, cell+columns) && get(down, cell+1);
+  }
+
+  // Stream the character grid to some writer, then close it
+  public void write(MazeWriter out) throws IOException {
+    try (MazeWriter w = out) {
+      for (int y = 0; y < getHeight(); y++)
+        for (int x = 0; x < getWidth(); x++)
+          w.write(isOpen(x, y));
+    }
+  }
+
+  public void writeText(File f) throws IOException { write(new TextMazeWriter(f, getWidth(), getHeight(), getStart(), getEnd())); }
+
+  public void writeBinary(File f) throws IOException { write(new BinaryMazeWriter(f, getWidth(), getHeight(), getStart(), getEnd())); }
+
+  // Write the character grid as a tiled grid file, for mazes too large to hold in memory at all
+  public void writeTiled(File f) throws IOException {
+    try (TiledMazeGrid tiled = TiledMazeGrid.create(f, getWidth(), getHeight(), getStart(), getEnd(), TiledMazeGrid.tilesAcross(getWidth()))) {
+      write(tiled.writer());
+    }
+  }
+
+  // Build the character grid in memory, for mazes small enough to solve directly
+  public MazeFile toMazeFile() {
+    BitMazeGrid grid = new BitMazeGrid(getWidth(), getHeight());
+
+    for (int y = 1; y < getHeight()-1; y++)
+      for (int x = 1; x < getWidth()-1; x++)
+        if (isOpen(x, y))
+          grid.setOpen(x, y, true);
+
+    return new MazeFile(grid, getStart(), getEnd());
+  }
+
+  /* * * PASSAGES * * */
+
+  int cells() { return columns*rows; }
+
+  // Return the cell one step away in some direction, or -1 past the edge of the maze
+  int neighbor(int cell, int dir) {
+    switch (dir) {
+      case UP:    return cell >= columns ? cell - columns : -1;
+      case DOWN:  return cell < cells() - columns ? cell + columns : -1;
+      case LEFT:  return cell % columns != 0 ? cell - 1 : -1;
+      default:    return cell % columns != columns-1 ? cell + 1 : -1;
+    }
+  }
+
+  // Return whether or not some in-bounds direction from a cell has been carved through
+  boolean isPassage(int cell, int dir) {
+    switch (dir) {
+      case UP:    return get(down, cell - columns);
+      case DOWN:  return get(down, cell);
+      case LEFT:  return get(right, cell - 1);
+      default:    return get(right, cell);
+    }
+  }
+
+  // Carve a passage from a cell to its neighbor in some in-bounds direction
+  void carve(int cell, int dir) {
+    switch (dir) {
+      case UP:    set(down, cell - columns); break;
+      case DOWN:  set(down, cell); break;
+      case LEFT:  set(right, cell - 1); break;
+      default:    set(right, cell);
+    }
+  }
+
+  // Count the passages leading out of a cell
+  int degree(int cell) {
+    int n = 0;
+    for (int dir = 0; dir < 4; dir++)
+      if (neighbor(cell, dir) >= 0 && isPassage(cell, dir))
+        n++;
+    return n;
+  }
+
+  static int opposite(int dir) { return dir ^ 1; }
+
+  static boolean get(long[] bits, int i) { return (bits[i >>> 6] & (1L << i)) != 0; }
+
+  static void set(long[] bits, int i) { bits[i >>> 6] |= 1L << i; }
+}
@@ -0,0 +1,15 @@
+package hoggle.gen;
+
+// One direction per cell, packed two bits each
+final class DirectionArray {
+  private final long[] bits;
+
+  DirectionArray(int size) { this.bits = new long[(int)(((long)size + 31) >>> 5)]; }
+
+  int get(int i) { return (int)(bits[i >>> 5] >>> ((i & 31) << 1)) & 3; }
+
+  void set(int i, int dir) {
+    int shift = (i & 31) << 1;
+    bits[i >>> 5] = (bits[i >>> 5] & ~(3L << shift)) | ((long)dir << shift);
+  }
+}
@@ -0,0 +1,101 @@
+package hoggle.gen;
+
+import java.util.SplittableRandom;
+
+// Generates mazes of any size from a seed; the same seed and settings always give the same maze. Each algorithm carves a
+// perfect maze, one with exactly one path between any two cells, and optional rooms and braiding then open it up
+public abstract class MazeGenerator {
+  private final int columns, rows;
+  private final long seed;
+  private double braid = 0, roomDensity = 0;
+
+  protected MazeGenerator(int columns, int rows, long seed) {
+    assert (columns > 0 && rows > 0);
+
+    this.columns = columns;
+    this.rows = rows;
+    this.seed = seed;
+  }
+
+  // Set the fraction of dead-ends to knock through into a neighbor, adding loops; zero leaves the maze perfect
+  public void setBraid(double fraction) {
+    assert (fraction >= 0 && fraction <= 1);
+    this.braid = fraction;
+  }
+
+  // Set roughly what fraction of the maze is opened up into rectangular rooms
+  public void setRoomDensity(double density) {
+    assert (density >= 0 && density <= 1);
+    this.roomDensity = density;
+  }
+
+  public CellMaze generate() {
+    SplittableRandom random = new SplittableRandom(seed);
+    CellMaze maze = new CellMaze(columns, rows);
+
+    carve(maze, random);
+
+    if (roomDensity > 0)
+      addRooms(maze, random);
+    if (braid > 0)
+      braid(maze, random);
+
+    return maze;
+  }
+
+  // Carve a perfect maze into one that is walled everywhere
+  protected abstract void carve(CellMaze maze, SplittableRandom random);
+
+  /* * * EXTRAS * * */
+
+  // Open up rooms of 2-8 cells a side until they cover the requested area, counting overlaps twice
+  private void addRooms(CellMaze maze, SplittableRandom random) {
+    long target = (long)(roomDensity * maze.cells());
+
+    for (long covered = 0; covered < target; ) {
+      int w = Math.min(columns, 2 + random.nextInt(7)), h = Math.min(rows, 2 + random.nextInt(7));
+      int left = random.nextInt(columns - w + 1), top = random.nextInt(rows - h + 1);
+
+      for (int r = top; r < top + h; r++)
+        for (int c = left; c < left + w; c++) {
+          int cell = r*columns + c;
+          if (c < left + w - 1)
+            maze.carve(cell, CellMaze.RIGHT);
+          if (r < top + h - 1)
+            maze.carve(cell, CellMaze.DOWN);
+        }
+
+      covered += (long)w*h;
+    }
+  }
+
+  // Knock each dead-end through into a random neighbor with some probability, preferring neighbors that are dead-ends
+  // themselves so that one knock removes two
+  private void braid(CellMaze maze, SplittableRandom random) {
+    for (int cell = 0; cell < maze.cells(); cell++) {
+      if (maze.degree(cell) != 1 || random.nextDouble() >= braid)
+        continue;
+
+      int choice = -1, options = 0;
+      boolean deadEnd = false;
+
+      for (int dir = 0; dir < 4; dir++) {
+        int next = maze.neighbor(cell, dir);
+        if (next < 0 || maze.isPassage(cell, dir))
+          continue;
+
+        boolean nextDeadEnd = maze.degree(next) == 1;
+        if (nextDeadEnd && !deadEnd) {
+          deadEnd = true;
+          options = 0;
+        }
+
+        if (nextDeadEnd == deadEnd && random.nextInt(++options) == 0)
+          choice = dir;
+      }
+
+      if (choice >= 0)
+        maze.carve(cell, choice);
+    }
+  }
+}
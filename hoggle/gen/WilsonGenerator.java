@@ -0,0 +1,44 @@
+package hoggle.gen;
+
+import java.util.SplittableRandom;
+
+// Wilson's algorithm: random walks from each cell not yet in the maze until they hit it, then the walk with its loops
+// erased is carved in. Every possible perfect maze is equally likely, so there is no bias toward long corridors or short
+// dead-ends. Each cell holds only the direction it was last left by, which erases loops for free. Early walks wander a long
+// way before finding the small maze, so this is the slowest of the generators
+public class WilsonGenerator extends MazeGenerator {
+  public WilsonGenerator(int columns, int rows, long seed) { super(columns, rows, seed); }
+
+  @Override
+  protected void carve(CellMaze maze, SplittableRandom random) {
+    long[] inMaze = new long[(maze.cells() + 63) >>> 6];
+    DirectionArray exit = new DirectionArray(maze.cells());
+
+    CellMaze.set(inMaze, random.nextInt(maze.cells()));
+
+    for (int start = 0; start < maze.cells(); start++) {
+      if (CellMaze.get(inMaze, start))
+        continue;
+
+      // Walk until the maze is reached, overwriting the exit of any cell revisited
+      for (int cell = start; !CellMaze.get(inMaze, cell); ) {
+        int dir, next;
+        do {
+          dir = random.nextInt(4);
+          next = maze.neighbor(cell, dir);
+        } while (next < 0);
+
+        exit.set(cell, dir);
+        cell = next;
+      }
+
+      // Retrace the walk by its last exits, which skips every loop it made
+      for (int cell = start; !CellMaze.get(inMaze, cell); ) {
+        int dir = exit.get(cell);
+        maze.carve(cell, dir);
+        CellMaze.set(inMaze, cell);
+        cell = maze.neighbor(cell, dir);
+      }
+    }
+  }
+}